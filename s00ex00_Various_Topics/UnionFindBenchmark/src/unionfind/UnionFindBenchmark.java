@@ -0,0 +1,226 @@
+/******************************************************************************
+ *  Compilation:  see README.md (needs JMH and the union-find sources)
+ *  Execution:    java -cp <classpath> org.openjdk.jmh.Main UnionFindBenchmark -prof gc
+ *
+ *  JMH throughput benchmark of the union-find implementations in this repo.
+ ******************************************************************************/
+
+package unionfind;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *  @class UnionFindBenchmark
+ *  @brief Measures how fast each union-find variant ingests an edge list.
+ *
+ *  Every benchmark invocation creates a fresh structure with n elements and
+ *  unions all m edges, like the algs4 UF clients do with tinyUF / mediumUF /
+ *  largeUF. The score is invocations per second; multiply by m for unions per
+ *  second. Run with `-prof gc` to also get the allocation rate.
+ *
+ *  Workload shapes (@Param size):
+ *  - tiny:   n = 10,        m = 11        (like tinyUF.txt)
+ *  - medium: n = 625,       m = 900       (like mediumUF.txt)
+ *  - large:  n = 1 000 000, m = 2 000 000 (like largeUF.txt)
+ *
+ *  Edge orders (@Param order):
+ *  - random: uniformly random pairs.
+ *  - binomial: (i, i + 2^k) for i = 0, 2^(k+1), 2 * 2^(k+1), ... in rounds
+ *            k = 0, 1, 2, ..., so every union links two trees of equal size.
+ *            This builds binomial trees of height log2 n, the worst case for
+ *            union by size; the remaining edges are random pairs whose finds
+ *            start deep in those trees.
+ *  - grid:   right and down neighbors of a sqrt(n) x sqrt(n) grid in row-major
+ *            order, the access pattern of Percolation.
+ *
+ *  JMH refuses benchmark classes in the default package, while the union-find
+ *  classes of this repo live there and cannot be referenced from a named
+ *  package. They are therefore called through static final MethodHandles,
+ *  which the JIT treats as constants and inlines like direct calls.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UnionFindBenchmark {
+
+    @Param({"tiny", "medium", "large"})
+    public String size;
+
+    @Param({"random", "binomial", "grid"})
+    public String order;
+
+    private int n;       /**< Number of elements. */
+    private int[] p;     /**< First endpoints of the edges. */
+    private int[] q;     /**< Second endpoints of the edges. */
+
+    private static final MethodHandle WQUPC_NEW = constructor("WeightedQuickUnionPathCompressionUF");
+    private static final MethodHandle WQUPC_UNION = method("WeightedQuickUnionPathCompressionUF", "union", int.class, int.class);
+    private static final MethodHandle WQUPC_UNION_ALL = method("WeightedQuickUnionPathCompressionUF", "unionAll", int[].class, int[].class);
+    private static final MethodHandle WQUPC_COUNT = method("WeightedQuickUnionPathCompressionUF", "count");
+    private static final MethodHandle CONCURRENT_NEW = constructor("ConcurrentQuickUnionUF");
+    private static final MethodHandle CONCURRENT_UNION = method("ConcurrentQuickUnionUF", "union", int.class, int.class);
+    private static final MethodHandle CONCURRENT_COUNT = method("ConcurrentQuickUnionUF", "count");
+    private static final MethodHandle SOCIAL_NEW = constructor("SocialNetworkConnection$UnionFind");
+    private static final MethodHandle SOCIAL_UNION = method("SocialNetworkConnection$UnionFind", "union", int.class, int.class);
+    private static final MethodHandle SOCIAL_COUNT = method("SocialNetworkConnection$UnionFind", "count");
+
+    /**
+     * @brief Generates the edge list for the current parameters (fixed seed).
+     */
+    @Setup(Level.Trial)
+    public void generate() {
+        int m;
+        switch (size) {
+            case "tiny":   n = 10;        m = 11;        break;
+            case "medium": n = 625;       m = 900;       break;
+            case "large":  n = 1_000_000; m = 2_000_000; break;
+            default: throw new IllegalArgumentException("Unknown size " + size);
+        }
+        p = new int[m];
+        q = new int[m];
+        SplittableRandom random = new SplittableRandom(42);
+        int e = 0;
+        switch (order) {
+            case "random":
+                break;
+            case "binomial":
+                for (int step = 1; step < n && e < m; step *= 2) {
+                    for (int i = 0; i + step < n && e < m; i += 2 * step) {
+                        p[e] = i;
+                        q[e++] = i + step;
+                    }
+                }
+                break;
+            case "grid":
+                int side = (int) Math.sqrt(n);
+                for (int row = 0; row < side && e < m; row++) {
+                    for (int col = 0; col < side && e < m; col++) {
+                        int site = row * side + col;
+                        if (col + 1 < side && e < m) {
+                            p[e] = site;
+                            q[e++] = site + 1;
+                        }
+                        if (row + 1 < side && e < m) {
+                            p[e] = site;
+                            q[e++] = site + side;
+                        }
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown order " + order);
+        }
+        // Fill up the remaining edges with random pairs.
+        for (; e < m; e++) {
+            p[e] = random.nextInt(n);
+            q[e] = random.nextInt(n);
+        }
+    }
+
+    @Benchmark
+    public int weightedQuickUnionPathCompression() throws Throwable {
+        Object uf = (Object) WQUPC_NEW.invokeExact(n);
+        for (int e = 0; e < p.length; e++) {
+            WQUPC_UNION.invokeExact(uf, p[e], q[e]);
+        }
+        return (int) WQUPC_COUNT.invokeExact(uf);
+    }
+
+    @Benchmark
+    public int weightedQuickUnionPathCompressionBatch() throws Throwable {
+        Object uf = (Object) WQUPC_NEW.invokeExact(n);
+        WQUPC_UNION_ALL.invokeExact(uf, p, q);
+        return (int) WQUPC_COUNT.invokeExact(uf);
+    }
+
+    @Benchmark
+    public int concurrentQuickUnion() throws Throwable {
+        Object uf = (Object) CONCURRENT_NEW.invokeExact(n);
+        for (int e = 0; e < p.length; e++) {
+            CONCURRENT_UNION.invokeExact(uf, p[e], q[e]);
+        }
+        return (int) CONCURRENT_COUNT.invokeExact(uf);
+    }
+
+    @Benchmark
+    public int socialNetworkUnionFind() throws Throwable {
+        Object uf = (Object) SOCIAL_NEW.invokeExact(n);
+        for (int e = 0; e < p.length; e++) {
+            SOCIAL_UNION.invokeExact(uf, p[e], q[e]);
+        }
+        return (int) SOCIAL_COUNT.invokeExact(uf);
+    }
+
+    @Benchmark
+    public int algs4WeightedQuickUnion() {
+        WeightedQuickUnionUF uf = new WeightedQuickUnionUF(n);
+        for (int e = 0; e < p.length; e++) {
+            uf.union(p[e], q[e]);
+        }
+        return uf.count();
+    }
+
+    /**
+     * @brief Handle of type (int)Object creating a structure with n elements.
+     *
+     * Inner classes (SocialNetworkConnection$UnionFind) get a fresh outer instance bound.
+     */
+    private static MethodHandle constructor(String className) {
+        try {
+            Class<?> type = Class.forName(className);
+            Class<?> outer = type.getDeclaringClass();
+            boolean inner = outer != null && !java.lang.reflect.Modifier.isStatic(type.getModifiers());
+            Constructor<?> constructor = inner ? type.getDeclaredConstructor(outer, int.class) : type.getDeclaredConstructor(int.class);
+            constructor.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+            if (inner) {
+                Constructor<?> outerConstructor = outer.getDeclaredConstructor();
+                outerConstructor.setAccessible(true);
+                handle = MethodHandles.insertArguments(handle, 0, outerConstructor.newInstance());
+            }
+            return handle.asType(MethodType.methodType(Object.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * @brief Handle of type (Object, parameters...)void or (Object)int for count().
+     */
+    private static MethodHandle method(String className, String name, Class<?>... parameters) {
+        try {
+            Method method = Class.forName(className).getDeclaredMethod(name, parameters);
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            Class<?> result = parameters.length == 0 ? int.class : void.class;
+            return handle.asType(MethodType.methodType(result, Object.class, parameters));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/******************************************************************************
+ *  Compilation:  javac ConcurrentQuickUnionUF.java
+ *  Execution:    java ConcurrentQuickUnionUF [threads] < input.txt
+ *  Dependencies: StdIn.java StdOut.java WeightedQuickUnionPathCompressionUF.java
+ *  Data files:   https://algs4.cs.princeton.edu/15uf/tinyUF.txt
+ *                https://algs4.cs.princeton.edu/15uf/mediumUF.txt
+ *                https://algs4.cs.princeton.edu/15uf/largeUF.txt
+ *
+ *  Lock-free quick-union with randomized linking and path halving.
+ ******************************************************************************/
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  @class ConcurrentQuickUnionUF
+ *  @brief Thread-safe union–find (disjoint-set) data structure without locks.
+ *
+ *  Same API as WeightedQuickUnionPathCompressionUF, but every operation may be
+ *  called concurrently from any number of threads. All parent links live in an
+ *  AtomicIntegerArray and are only ever changed with compare-and-set.
+ *
+ *  Key Features:
+ *  - **Union**: Links one root below the other with a single CAS. If another
+ *    thread changed the root in the meantime, the union simply retries.
+ *  - **Find**: Path halving; every second node on the path is re-pointed to
+ *    its grandparent with a CAS. A failed CAS is harmless and is not retried.
+ *  - **Randomized Linking**: Instead of the size weighting of the sequential
+ *    class (sizes cannot be updated atomically together with the link), roots
+ *    are ordered by a fixed pseudo-random priority derived from their index.
+ *    All threads agree on that order, which keeps concurrent unions cycle-free
+ *    and gives expected O(log n) tree height for any input order.
+ *
+ *  Efficiency:
+ *  - Constructor: O(n), where n is the number of elements.
+ *  - Union and Find: O(log n) expected, lock-free.
+ *  - count(): O(1), exact once all running unions have returned.
+ *
+ *  For detailed explanations, see:
+ *  - Jayanti and Tarjan, "A Randomized Concurrent Algorithm for Disjoint Set Union" (PODC 2016)
+ *  - Section 1.5 on Union-Find: https://algs4.cs.princeton.edu/15uf
+ */
+
+public class ConcurrentQuickUnionUF {
+
+    private final AtomicIntegerArray parent;  /**< parent.get(i) is the parent of node i. */
+    private final AtomicInteger count;        /**< Tracks the number of connected components. */
+
+    /**
+     * @brief Initializes a union-find data structure with n elements.
+     *
+     * Each element starts in its own component, with itself as its only member.
+     *
+     * @param n Number of elements (must be non-negative).
+     * @throws IllegalArgumentException if n < 0.
+     */
+    public ConcurrentQuickUnionUF(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of elements cannot be negative.");
+        }
+        count = new AtomicInteger(n);
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            parent.set(i, i);
+        }
+    }
+
+    /**
+     * @brief Gets the number of connected components.
+     *
+     * @return Number of components (between 1 and n).
+     */
+    public int count() {
+        return count.get();
+    }
+
+    /**
+     * @brief Finds the root of the set containing the element p.
+     *
+     * The returned root may already be stale when the method returns if another
+     * thread links it concurrently; use connected() to compare components.
+     *
+     * @param p Element whose root is to be found.
+     * @return Root (canonical element) of the set containing p.
+     * @throws IllegalArgumentException if p is not a valid index.
+     */
+    public int find(int p) {
+        validate(p);
+        int next = parent.get(p);
+        while (p != next) {
+            int grand = parent.get(next);
+            // Path halving: p skips its parent. Losing the race to another thread is fine,
+            // the link we expected has already been shortened or re-pointed.
+            if (next != grand) {
+                parent.compareAndSet(p, next, grand);
+            }
+            p = grand;
+            next = parent.get(p);
+        }
+        return p;
+    }
+
+    /**
+     * @brief Checks if two elements are in the same set.
+     *
+     * Retries until it observes two roots at the same time, which makes the
+     * answer linearizable with respect to concurrent unions.
+     *
+     * @param p First element.
+     * @param q Second element.
+     * @return True if p and q are connected, false otherwise.
+     * @throws IllegalArgumentException if p or q is not a valid index.
+     */
+    public boolean connected(int p, int q) {
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) return true;
+            // rootP is still a root, so p and q really were apart at this point.
+            if (parent.get(rootP) == rootP) return false;
+        }
+    }
+
+    /**
+     * @brief Merges the sets containing elements p and q.
+     *
+     * @param p First element.
+     * @param q Second element.
+     * @return True if this call merged two components, false if they were already connected.
+     * @throws IllegalArgumentException if p or q is not a valid index.
+     */
+    public boolean union(int p, int q) {
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+
+            // If p and q already share the same root, they are in the same set.
+            if (rootP == rootQ) return false;
+
+            // Always link the root with the lower priority below the other one.
+            if (isBelow(rootP, rootQ)) {
+                if (parent.compareAndSet(rootP, rootP, rootQ)) break;
+            } else {
+                if (parent.compareAndSet(rootQ, rootQ, rootP)) break;
+            }
+            // The root we wanted to link was linked by someone else first; start over.
+        }
+        count.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * @brief Total order on nodes used for linking.
+     *
+     * @return True if a ranks below b.
+     */
+    private static boolean isBelow(int a, int b) {
+        int pa = priority(a);
+        int pb = priority(b);
+        return pa < pb || (pa == pb && a < b);
+    }
+
+    /**
+     * @brief Fixed pseudo-random priority of a node (murmur3 finalizer).
+     */
+    private static int priority(int x) {
+        x ^= x >>> 16;
+        x *= 0x85ebca6b;
+        x ^= x >>> 13;
+        x *= 0xc2b2ae35;
+        x ^= x >>> 16;
+        return x;
+    }
+
+    /**
+     * @brief Validates that a given index is within range.
+     *
+     * @param p Index to validate.
+     * @throws IllegalArgumentException if p is out of bounds.
+     */
+    private void validate(int p) {
+        int n = parent.length();
+        if (p < 0 || p >= n) {
+            throw new IllegalArgumentException("Index " + p + " is not between 0 and " + (n - 1));
+        }
+    }
+
+    /**
+     * @brief Compares sequential and multi-threaded ingestion of the same edges.
+     *
+     * Reads an integer n and a sequence of pairs from standard input, unions all
+     * pairs once with WeightedQuickUnionPathCompressionUF and once with this class
+     * split across the given number of threads, and prints both timings.
+     *
+     * @param args Optional number of threads (defaults to the number of processors).
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+
+        int n = StdIn.readInt();
+        int[] edges = new int[16];
+        int m = 0;
+        while (!StdIn.isEmpty()) {
+            if (m + 2 > edges.length) {
+                edges = java.util.Arrays.copyOf(edges, 2 * edges.length);
+            }
+            edges[m++] = StdIn.readInt();
+            edges[m++] = StdIn.readInt();
+        }
+        final int[] pairs = edges;
+        final int edgeCount = m / 2;
+
+        long start = System.nanoTime();
+        WeightedQuickUnionPathCompressionUF sequential = new WeightedQuickUnionPathCompressionUF(n);
+        for (int e = 0; e < edgeCount; e++) {
+            sequential.union(pairs[2 * e], pairs[2 * e + 1]);
+        }
+        long sequentialNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        ConcurrentQuickUnionUF concurrent = new ConcurrentQuickUnionUF(n);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int from = (int) ((long) edgeCount * t / threads);
+            final int to = (int) ((long) edgeCount * (t + 1) / threads);
+            workers[t] = new Thread(() -> {
+                for (int e = from; e < to; e++) {
+                    concurrent.union(pairs[2 * e], pairs[2 * e + 1]);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long concurrentNanos = System.nanoTime() - start;
+
+        StdOut.println(edgeCount + " edges, " + n + " elements");
+        StdOut.printf("sequential:  %d components in %.3f ms%n", sequential.count(), sequentialNanos / 1e6);
+        StdOut.printf("concurrent:  %d components in %.3f ms (%d threads)%n", concurrent.count(), concurrentNanos / 1e6, threads);
+        StdOut.printf("speedup:     %.2fx%n", (double) sequentialNanos / concurrentNanos);
+    }
+}
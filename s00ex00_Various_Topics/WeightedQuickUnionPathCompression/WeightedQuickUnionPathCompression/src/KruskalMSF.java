@@ -0,0 +1,262 @@
+/******************************************************************************
+ *  Compilation:  javac KruskalMSF.java
+ *  Execution:    java KruskalMSF < input.txt
+ *  Dependencies: StdIn.java StdOut.java WeightedQuickUnionPathCompressionUF.java
+ *  Data files:   https://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *                https://algs4.cs.princeton.edu/43mst/mediumEWG.txt
+ *                https://algs4.cs.princeton.edu/43mst/largeEWG.txt
+ *
+ *  Minimum spanning forest with filter-Kruskal over primitive edge arrays.
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  @class KruskalMSF
+ *  @brief Computes a minimum spanning forest of an edge-weighted graph.
+ *
+ *  The graph is given as three parallel arrays (from, to, weight), so no edge
+ *  objects are allocated. The result is the list of edge indices that form
+ *  the forest, together with its total weight.
+ *
+ *  Key Features:
+ *  - **Filter-Kruskal**: Instead of sorting all edges up front, the edges are
+ *    partitioned around a pivot weight like in quicksort. The light half is
+ *    processed first; afterwards every heavy edge whose endpoints are already
+ *    connected is filtered out before the heavy half is partitioned further.
+ *    On dense graphs most edges are discarded this way without being sorted.
+ *  - **Early Exit**: Stops as soon as the forest has n - 1 edges.
+ *  - **Union-Find**: Uses WeightedQuickUnionPathCompressionUF for the cycle checks.
+ *
+ *  Efficiency:
+ *  - O(m + n log n log(m / n)) expected for random weights, O(m log m) worst case,
+ *    where m is the number of edges.
+ *  - Extra space: O(m) for the edge index permutation and a weight copy.
+ *
+ *  For detailed explanations, see:
+ *  - Osipov, Sanders and Singler, "The Filter-Kruskal Minimum Spanning Tree Algorithm" (ALENEX 2009)
+ *  - Section 4.3 on Minimum Spanning Trees: https://algs4.cs.princeton.edu/43mst
+ */
+
+public class KruskalMSF {
+
+    private static final int SORT_THRESHOLD = 1 << 10;  /**< Ranges this small are sorted instead of partitioned. */
+
+    private final int[] from;                          /**< First endpoint of every edge. */
+    private final int[] to;                            /**< Second endpoint of every edge. */
+    private final WeightedQuickUnionPathCompressionUF uf;
+    private final int[] forest;                        /**< Indices of the forest edges, in order of weight. */
+    private int forestSize;                            /**< Number of entries used in forest. */
+    private final int maxForestSize;                   /**< n - 1, the size of a spanning tree. */
+    private double weight;                             /**< Total weight of the forest. */
+
+    /**
+     * @brief Computes a minimum spanning forest.
+     *
+     * @param n Number of vertices.
+     * @param from First endpoint of every edge.
+     * @param to Second endpoint of every edge.
+     * @param weight Weight of every edge.
+     * @throws IllegalArgumentException if n < 0, the arrays differ in length,
+     *         an endpoint is out of range or a weight is NaN.
+     */
+    public KruskalMSF(int n, int[] from, int[] to, double[] weight) {
+        if (from.length != to.length || from.length != weight.length) {
+            throw new IllegalArgumentException("Edge arrays must have the same length.");
+        }
+        uf = new WeightedQuickUnionPathCompressionUF(n);
+        for (int e = 0; e < from.length; e++) {
+            if (from[e] < 0 || from[e] >= n || to[e] < 0 || to[e] >= n) {
+                throw new IllegalArgumentException("Edge " + e + " has an endpoint that is not between 0 and " + (n - 1));
+            }
+            if (Double.isNaN(weight[e])) {
+                throw new IllegalArgumentException("Edge " + e + " has a NaN weight.");
+            }
+        }
+        this.from = from;
+        this.to = to;
+        maxForestSize = Math.max(0, n - 1);
+        forest = new int[Math.min(maxForestSize, from.length)];
+
+        int[] edges = new int[from.length];
+        for (int e = 0; e < edges.length; e++) {
+            edges[e] = e;
+        }
+        filterKruskal(edges, weight.clone(), 0, edges.length);
+    }
+
+    /**
+     * @brief Returns the edges of the minimum spanning forest.
+     *
+     * @return Indices into the input arrays, in order of increasing weight.
+     */
+    public int[] edges() {
+        return Arrays.copyOf(forest, forestSize);
+    }
+
+    /**
+     * @brief Returns the total weight of the minimum spanning forest.
+     *
+     * @return Sum of the weights of the forest edges.
+     */
+    public double weight() {
+        return weight;
+    }
+
+    /**
+     * @brief Processes edges[lo..hi) in order of weight.
+     *
+     * w[k] always holds the weight of edges[k], so both arrays are permuted together.
+     */
+    private void filterKruskal(int[] edges, double[] w, int lo, int hi) {
+        while (hi - lo > SORT_THRESHOLD && forestSize < maxForestSize) {
+            // Median of three as pivot, then split into weight <= pivot and weight > pivot.
+            int mid = lo + (hi - lo) / 2;
+            double pivot = median(w[lo], w[mid], w[hi - 1]);
+            int split = partition(edges, w, lo, hi, pivot);
+            if (split == hi) {
+                // Every weight is <= the median, so the pivot is the maximum; split off the ties instead.
+                split = partitionBelow(edges, w, lo, hi, pivot);
+                if (split == lo) break;  // All weights are equal: any order is sorted.
+            }
+            filterKruskal(edges, w, lo, split);
+
+            // Drop heavy edges that would close a cycle, then continue with the rest.
+            lo = filter(edges, w, split, hi);
+        }
+        if (forestSize == maxForestSize) return;
+        sort(edges, w, lo, hi - 1);
+        kruskal(edges, w, lo, hi);
+    }
+
+    /**
+     * @brief Plain Kruskal over the sorted range edges[lo..hi).
+     */
+    private void kruskal(int[] edges, double[] w, int lo, int hi) {
+        for (int k = lo; k < hi && forestSize < maxForestSize; k++) {
+            int e = edges[k];
+            if (uf.find(from[e]) != uf.find(to[e])) {
+                uf.union(from[e], to[e]);
+                forest[forestSize++] = e;
+                weight += w[k];
+            }
+        }
+    }
+
+    /**
+     * @brief Moves edges of edges[lo..hi) that still connect two components to the end.
+     *
+     * @return Start of the surviving edges; edges[result..hi) are kept.
+     */
+    private int filter(int[] edges, double[] w, int lo, int hi) {
+        int keep = hi;
+        for (int k = hi - 1; k >= lo; k--) {
+            int e = edges[k];
+            if (uf.find(from[e]) != uf.find(to[e])) {
+                swap(edges, w, k, --keep);
+            }
+        }
+        return keep;
+    }
+
+    /**
+     * @brief Partitions edges[lo..hi) into weight <= pivot followed by weight > pivot.
+     *
+     * @return Index of the first edge heavier than pivot.
+     */
+    private static int partition(int[] edges, double[] w, int lo, int hi, double pivot) {
+        int i = lo;
+        for (int k = lo; k < hi; k++) {
+            if (w[k] <= pivot) {
+                swap(edges, w, i++, k);
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @brief Partitions edges[lo..hi) into weight < pivot followed by weight >= pivot.
+     *
+     * @return Index of the first edge not lighter than pivot.
+     */
+    private static int partitionBelow(int[] edges, double[] w, int lo, int hi, double pivot) {
+        int i = lo;
+        for (int k = lo; k < hi; k++) {
+            if (w[k] < pivot) {
+                swap(edges, w, i++, k);
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @brief Sorts edges[lo..hi] by weight (quicksort, insertion sort for small ranges).
+     */
+    private static void sort(int[] edges, double[] w, int lo, int hi) {
+        while (hi - lo > 16) {
+            int mid = lo + (hi - lo) / 2;
+            double pivot = median(w[lo], w[mid], w[hi]);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (w[i] < pivot) i++;
+                while (w[j] > pivot) j--;
+                if (i <= j) {
+                    swap(edges, w, i++, j--);
+                }
+            }
+            // Recurse into the smaller half to bound the stack depth.
+            if (j - lo < hi - i) {
+                sort(edges, w, lo, j);
+                lo = i;
+            } else {
+                sort(edges, w, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && w[j] < w[j - 1]; j--) {
+                swap(edges, w, j, j - 1);
+            }
+        }
+    }
+
+    private static double median(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static void swap(int[] edges, double[] w, int i, int j) {
+        int e = edges[i];
+        edges[i] = edges[j];
+        edges[j] = e;
+        double t = w[i];
+        w[i] = w[j];
+        w[j] = t;
+    }
+
+    /**
+     * @brief Reads an edge-weighted graph and prints its minimum spanning forest.
+     *
+     * Input format (as in tinyEWG.txt): number of vertices, number of edges,
+     * then one "v w weight" line per edge.
+     *
+     * @param args Command-line arguments (not used).
+     */
+    public static void main(String[] args) {
+        int n = StdIn.readInt();
+        int m = StdIn.readInt();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] weight = new double[m];
+        for (int e = 0; e < m; e++) {
+            from[e] = StdIn.readInt();
+            to[e] = StdIn.readInt();
+            weight[e] = StdIn.readDouble();
+        }
+        KruskalMSF msf = new KruskalMSF(n, from, to, weight);
+        for (int e : msf.edges()) {
+            StdOut.printf("%d-%d %.5f%n", from[e], to[e], weight[e]);
+        }
+        StdOut.printf("%.5f%n", msf.weight());
+    }
+}
@@ -0,0 +1,371 @@
+/******************************************************************************
+ *  Compilation:  javac OffHeapQuickUnionUF.java
+ *  Execution:    java OffHeapQuickUnionUF [state-file] < input.txt
+ *  Dependencies: StdIn.java StdOut.java
+ *  Data files:   https://algs4.cs.princeton.edu/15uf/tinyUF.txt
+ *                https://algs4.cs.princeton.edu/15uf/mediumUF.txt
+ *                https://algs4.cs.princeton.edu/15uf/largeUF.txt
+ *
+ *  Weighted (by rank) quick-union with path halving, stored off-heap.
+ ******************************************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *  @class OffHeapQuickUnionUF
+ *  @brief Union–find (disjoint-set) data structure for more than 2^31 elements.
+ *
+ *  Same operations as WeightedQuickUnionPathCompressionUF, but elements are
+ *  indexed by long and all state lives outside the Java heap, so the garbage
+ *  collector never scans it.
+ *
+ *  Key Features:
+ *  - **Off-heap Storage**: Parent links (8 bytes) and ranks (1 byte) are kept
+ *    in direct ByteBuffers of at most 2^30 bytes each, addressed by chunk.
+ *  - **Persistence**: open() maps the same layout from a file. Re-opening the
+ *    file continues from the saved state, so a long job can be resumed. The
+ *    header marks the file dirty before the first union after a flush; if the
+ *    process dies before the next flush, open() recounts the components from
+ *    the parent links instead of trusting the stored count.
+ *  - **Union by Rank**: Ranks never exceed 63, which is why one byte suffices
+ *    instead of a 4- or 8-byte size per element.
+ *  - **Path Halving**: find() points every other node on the path to its
+ *    grandparent, a single-pass alternative to full path compression.
+ *
+ *  Efficiency:
+ *  - Constructor / open(): O(n) for a new structure, O(1) for an existing file
+ *    that was closed or flushed, O(n) for one left dirty by a crash.
+ *  - Union and Find: O(log n) in the worst case, O(α(n)) amortized.
+ *  - Memory: 9 bytes per element, none of it on the heap.
+ *
+ *  The JDK used here does not ship the final Foreign Memory API (MemorySegment),
+ *  so mapped and direct ByteBuffers are used; they provide the same off-heap,
+ *  file-backed storage with int offsets inside each chunk.
+ *
+ *  For detailed explanations, see:
+ *  - Section 1.5 on Union-Find: https://algs4.cs.princeton.edu/15uf
+ */
+
+public class OffHeapQuickUnionUF implements AutoCloseable {
+
+    private static final int CHUNK_BITS = 27;                /**< 2^27 elements per chunk (1 GiB of parent links). */
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+    private static final int HEADER_BYTES = 4096;            /**< File header: magic, n, count, clean flag. */
+    private static final long MAGIC = 0x55464f4646484541L;   /**< "UFOFFHEA" */
+    private static final int MAGIC_OFFSET = 0;
+    private static final int N_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+    private static final int CLEAN_OFFSET = 24;              /**< 1 if count matches the links on disk, 0 while unions are unflushed. */
+
+    private final long n;                  /**< Number of elements. */
+    private final ByteBuffer[] parent;     /**< parent[c].getLong(8 * i) is the parent of element (c << CHUNK_BITS) + i. */
+    private final ByteBuffer[] rank;       /**< rank[c].get(i) is an upper bound on the height of the tree rooted there. */
+    private final ByteBuffer header;       /**< Mapped file header, or null when not file-backed. */
+    private final FileChannel channel;     /**< Backing file, or null. */
+    private long count;                    /**< Tracks the number of connected components. */
+    private boolean dirty;                 /**< True if a union happened since the file was last flushed. */
+
+    /**
+     * @brief Initializes an off-heap union-find data structure with n elements.
+     *
+     * Each element starts in its own component, with itself as its only member.
+     *
+     * @param n Number of elements (must be non-negative).
+     * @throws IllegalArgumentException if n < 0.
+     */
+    public OffHeapQuickUnionUF(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of elements cannot be negative.");
+        }
+        this.n = n;
+        this.channel = null;
+        this.header = null;
+        int chunks = chunks(n);
+        parent = new ByteBuffer[chunks];
+        rank = new ByteBuffer[chunks];
+        for (int c = 0; c < chunks; c++) {
+            long elements = chunkElements(n, c);
+            parent[c] = ByteBuffer.allocateDirect((int) (elements * Long.BYTES)).order(ByteOrder.nativeOrder());
+            rank[c] = ByteBuffer.allocateDirect((int) elements);
+        }
+        reset();
+    }
+
+    /**
+     * @brief Opens a file-backed union-find data structure.
+     *
+     * If the file already holds a structure, its state (links and component
+     * count) is reused; an empty or new file is initialized with every element
+     * in its own component.
+     *
+     * @param file Backing file.
+     * @param n Number of elements (must be non-negative).
+     * @return The file-backed union-find.
+     * @throws IOException if the file cannot be opened or mapped.
+     * @throws IllegalArgumentException if n < 0, or the file is not empty and
+     *         does not hold a union-find with exactly n elements.
+     */
+    public static OffHeapQuickUnionUF open(Path file, long n) throws IOException {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of elements cannot be negative.");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new OffHeapQuickUnionUF(channel, n);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private OffHeapQuickUnionUF(FileChannel channel, long n) throws IOException {
+        this.n = n;
+        this.channel = channel;
+        long fileBytes = HEADER_BYTES + n * (Long.BYTES + 1);
+        boolean existing = channel.size() > 0;
+        if (existing) {
+            checkHeader(channel, n, fileBytes);
+        }
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES).order(ByteOrder.nativeOrder());
+
+        int chunks = chunks(n);
+        parent = new ByteBuffer[chunks];
+        rank = new ByteBuffer[chunks];
+        long rankStart = HEADER_BYTES + n * Long.BYTES;
+        for (int c = 0; c < chunks; c++) {
+            long first = (long) c << CHUNK_BITS;
+            long elements = chunkElements(n, c);
+            parent[c] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + first * Long.BYTES, elements * Long.BYTES)
+                    .order(ByteOrder.nativeOrder());
+            rank[c] = channel.map(FileChannel.MapMode.READ_WRITE, rankStart + first, elements);
+        }
+
+        if (!existing) {
+            reset();
+            header.putLong(MAGIC_OFFSET, MAGIC);
+            header.putLong(N_OFFSET, n);
+            dirty = true;
+            flush();
+        } else if (header.getLong(CLEAN_OFFSET) == 1) {
+            count = header.getLong(COUNT_OFFSET);
+        } else {
+            // Unions after the last flush may have reached the disk only in part.
+            count = 0;
+            for (long i = 0; i < n; i++) {
+                if (parentOf(i) == i) count++;
+            }
+            dirty = true;
+            flush();
+        }
+    }
+
+    /**
+     * @brief Rejects a non-empty file that does not hold a structure with n elements.
+     */
+    private static void checkHeader(FileChannel channel, long n, long fileBytes) throws IOException {
+        ByteBuffer stored = ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.nativeOrder());
+        while (stored.hasRemaining() && channel.read(stored, stored.position()) > 0) {
+            // Keep reading until magic and n are in.
+        }
+        if (stored.hasRemaining() || stored.getLong(MAGIC_OFFSET) != MAGIC) {
+            throw new IllegalArgumentException("File does not hold an OffHeapQuickUnionUF.");
+        }
+        long storedN = stored.getLong(N_OFFSET);
+        if (storedN != n) {
+            throw new IllegalArgumentException("File holds " + storedN + " elements, not " + n + ".");
+        }
+        if (channel.size() != fileBytes) {
+            throw new IllegalArgumentException("File is " + channel.size() + " bytes, expected " + fileBytes + ".");
+        }
+    }
+
+    /**
+     * @brief Puts every element back into its own component.
+     */
+    private void reset() {
+        for (long i = 0; i < n; i++) {
+            setParent(i, i);
+            rank[(int) (i >>> CHUNK_BITS)].put((int) (i & CHUNK_MASK), (byte) 0);
+        }
+        count = n;
+    }
+
+    /**
+     * @brief Gets the number of connected components.
+     *
+     * @return Number of components (between 1 and n).
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @brief Finds the root of the set containing the element p.
+     *
+     * @param p Element whose root is to be found.
+     * @return Root (canonical element) of the set containing p.
+     * @throws IllegalArgumentException if p is not a valid index.
+     */
+    public long find(long p) {
+        validate(p);
+        long next = parentOf(p);
+        while (p != next) {
+            long grand = parentOf(next);
+            setParent(p, grand);  // Path halving: skip the parent.
+            p = grand;
+            next = parentOf(p);
+        }
+        return p;
+    }
+
+    /**
+     * @brief Checks if two elements are in the same set.
+     *
+     * @param p First element.
+     * @param q Second element.
+     * @return True if p and q are connected, false otherwise.
+     * @throws IllegalArgumentException if p or q is not a valid index.
+     */
+    public boolean connected(long p, long q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * @brief Merges the sets containing elements p and q.
+     *
+     * Uses union by rank: the root of the shallower tree is linked below the
+     * root of the deeper one.
+     *
+     * @param p First element.
+     * @param q Second element.
+     * @throws IllegalArgumentException if p or q is not a valid index.
+     */
+    public void union(long p, long q) {
+        long rootP = find(p);
+        long rootQ = find(q);
+
+        // If p and q already share the same root, they are in the same set.
+        if (rootP == rootQ) return;
+
+        markDirty();
+        int rankP = rankOf(rootP);
+        int rankQ = rankOf(rootQ);
+        if (rankP < rankQ) {
+            setParent(rootP, rootQ);
+        } else if (rankP > rankQ) {
+            setParent(rootQ, rootP);
+        } else {
+            setParent(rootQ, rootP);
+            rank[(int) (rootP >>> CHUNK_BITS)].put((int) (rootP & CHUNK_MASK), (byte) (rankP + 1));
+        }
+        count--;  // Reduce the component count since two sets are merged.
+    }
+
+    /**
+     * @brief Writes all mapped pages and the component count back to the file
+     *        and marks it clean.
+     *
+     * Does nothing for a structure that is not file-backed.
+     */
+    public void flush() {
+        if (header == null || !dirty) return;
+        for (int c = 0; c < parent.length; c++) {
+            ((MappedByteBuffer) parent[c]).force();
+            ((MappedByteBuffer) rank[c]).force();
+        }
+        // The links are on disk now, so the count stored next to them is valid.
+        header.putLong(COUNT_OFFSET, count);
+        header.putLong(CLEAN_OFFSET, 1);
+        ((MappedByteBuffer) header).force();
+        dirty = false;
+    }
+
+    /**
+     * @brief Marks the file dirty on disk before the first link of a union changes.
+     */
+    private void markDirty() {
+        if (header == null || dirty) return;
+        header.putLong(CLEAN_OFFSET, 0);
+        ((MappedByteBuffer) header).force();
+        dirty = true;
+    }
+
+    /**
+     * @brief Flushes and closes the backing file, if any.
+     *
+     * The structure must not be used afterwards. Off-heap memory of direct and
+     * mapped buffers is released once they become unreachable.
+     *
+     * @throws IOException if the backing file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        flush();
+        channel.close();
+    }
+
+    private long parentOf(long i) {
+        return parent[(int) (i >>> CHUNK_BITS)].getLong((int) (i & CHUNK_MASK) << 3);
+    }
+
+    private void setParent(long i, long value) {
+        parent[(int) (i >>> CHUNK_BITS)].putLong((int) (i & CHUNK_MASK) << 3, value);
+    }
+
+    private int rankOf(long i) {
+        return rank[(int) (i >>> CHUNK_BITS)].get((int) (i & CHUNK_MASK));
+    }
+
+    private static int chunks(long n) {
+        return (int) ((n + CHUNK_MASK) >>> CHUNK_BITS);
+    }
+
+    private static long chunkElements(long n, int chunk) {
+        return Math.min(1L << CHUNK_BITS, n - ((long) chunk << CHUNK_BITS));
+    }
+
+    /**
+     * @brief Validates that a given index is within range.
+     *
+     * @param p Index to validate.
+     * @throws IllegalArgumentException if p is out of bounds.
+     */
+    private void validate(long p) {
+        if (p < 0 || p >= n) {
+            throw new IllegalArgumentException("Index " + p + " is not between 0 and " + (n - 1));
+        }
+    }
+
+    /**
+     * @brief Reads input and processes union-find operations.
+     *
+     * Reads a number n and a sequence of pairs from standard input and prints
+     * every pair that connected two components, like
+     * WeightedQuickUnionPathCompressionUF. With a file argument the state is
+     * kept in that file, and running again with more pairs continues from it.
+     *
+     * @param args Optional path of the backing file.
+     * @throws IOException if the backing file cannot be used.
+     */
+    public static void main(String[] args) throws IOException {
+        long n = StdIn.readLong();
+        try (OffHeapQuickUnionUF uf = args.length > 0 ? open(Path.of(args[0]), n) : new OffHeapQuickUnionUF(n)) {
+            // Process input pairs until EOF.
+            while (!StdIn.isEmpty()) {
+                long p = StdIn.readLong();
+                long q = StdIn.readLong();
+                if (uf.connected(p, q)) continue;
+                uf.union(p, q);
+                StdOut.println(p + " " + q);
+            }
+            StdOut.println(uf.count() + " components");
+        }
+    }
+}
@@ -10,6 +10,10 @@
  *  Source: https://algs4.cs.princeton.edu/15uf/WeightedQuickUnionPathCompressionUF.java.html
  ******************************************************************************/
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
 /**
  *  @class WeightedQuickUnionPathCompressionUF
  *  @brief Represents a union–find (disjoint-set) data structure.
@@ -23,6 +27,10 @@
  *  - **Find**: Identifies the component containing a specific element.
  *  - **Path Compression**: Optimizes the structure by flattening paths during find operations.
  *  - **Weighted Union**: Ensures smaller trees are merged into larger ones, minimizing tree height.
+ *  - **Batch Operations**: unionAll() and connectedAll() process whole edge arrays,
+ *    unioning independent vertex ranges in parallel.
+ *  - **Instrumentation**: With -Dunionfind.instrument=true, stats() reports path
+ *    lengths, compression rewrites and union size ratios (see UnionFindProbe).
  *  
  *  Efficiency:
  *  - Constructor: O(n), where n is the number of elements.
@@ -40,9 +48,14 @@
 
  public class WeightedQuickUnionPathCompressionUF {
 
+    private static final int PARALLEL_THRESHOLD = 1 << 16; /**< Batches smaller than this are unioned sequentially. */
+    private static final int MIN_RANGE_SIZE = 1 << 12;     /**< Smallest vertex range handed to one worker. */
+
     private int[] parent;  /**< Array where parent[i] is the parent of node i. */
     private int[] size;    /**< Array where size[i] is the size of the tree rooted at i. */
     private int count;     /**< Tracks the number of connected components. */
+    private final UnionFindProbe probe = UnionFindProbe.ENABLED
+            ? new UnionFindProbe("WeightedQuickUnionPathCompressionUF") : null;  /**< Statistics, only when instrumented. */
 
     /**
      * @brief Initializes a union-find data structure with n elements.
@@ -78,6 +91,22 @@
         return count;
     }
 
+    /**
+     * @brief Returns find/union statistics collected so far.
+     * 
+     * Only available when the JVM runs with -Dunionfind.instrument=true; see
+     * UnionFindProbe.
+     * 
+     * @return Snapshot of the statistics of this instance.
+     * @throws IllegalStateException if instrumentation is off.
+     */
+    public UnionFindProbe.Snapshot stats() {
+        if (!UnionFindProbe.ENABLED) {
+            throw new IllegalStateException("Instrumentation is off, run with -Dunionfind.instrument=true");
+        }
+        return probe.snapshot();
+    }
+
     /**
      * @brief Finds the root of the set containing the element p.
      * 
@@ -91,17 +120,32 @@
      */
     public int find(int p) {
         validate(p);
+        return root(p);
+    }
+
+    /**
+     * @brief Same as find(), without the index check.
+     *
+     * @param p Element whose root is to be found (assumed valid).
+     * @return Root (canonical element) of the set containing p.
+     */
+    private int root(int p) {
         int root = p;
+        int length = 0;
         // Traverse up the parent array until the root is reached.
         while (root != parent[root]) {
             root = parent[root];
+            length++;
         }
         // Apply path compression: make every node on the path point directly to the root.
+        int rewritten = 0;
         while (p != root) {
             int newp = parent[p];
+            if (UnionFindProbe.ENABLED && newp != root) rewritten++;
             parent[p] = root;
             p = newp;
         }
+        if (UnionFindProbe.ENABLED) probe.recordFind(length, rewritten);
         return root;
     }
 
@@ -133,8 +177,29 @@
         int rootP = find(p);
         int rootQ = find(q);
 
+        if (link(rootP, rootQ)) {
+            count--;  // Reduce the component count since two sets are merged.
+        }
+    }
+
+    /**
+     * @brief Links two roots with size-weighted union.
+     *
+     * Does not touch count, so it can be used by batch operations that adjust
+     * the component count once at the end.
+     *
+     * @param rootP Root of the first set.
+     * @param rootQ Root of the second set.
+     * @return True if the roots were different and got linked, false otherwise.
+     */
+    private boolean link(int rootP, int rootQ) {
         // If p and q already share the same root, they are in the same set.
-        if (rootP == rootQ) return;
+        if (rootP == rootQ) return false;
+
+        // Every caller decrements count right after a successful link.
+        if (UnionFindProbe.ENABLED) {
+            probe.recordUnion(Math.max(size[rootP], size[rootQ]), Math.min(size[rootP], size[rootQ]), count - 1);
+        }
 
         // Merge the smaller tree into the larger tree.
         if (size[rootP] < size[rootQ]) {
@@ -144,7 +209,104 @@
             parent[rootQ] = rootP;
             size[rootP] += size[rootQ];
         }
-        count--;  // Reduce the component count since two sets are merged.
+        return true;
+    }
+
+    /**
+     * @brief Merges the sets of every pair (p[i], q[i]).
+     *
+     * Equivalent to calling union(p[i], q[i]) for each i, but processes the
+     * edges in bulk. Every edge is first mapped to the current roots of its
+     * endpoints and bucketed by vertex range of those roots. Edges whose roots
+     * fall into the same range only ever touch parent/size entries of that
+     * range, so the ranges are unioned in parallel. Edges crossing ranges are
+     * merged in one final sequential pass.
+     *
+     * Small batches (below PARALLEL_THRESHOLD edges) are processed sequentially,
+     * and so is every batch while instrumentation is on.
+     *
+     * @param p First elements of the pairs.
+     * @param q Second elements of the pairs.
+     * @throws IllegalArgumentException if the arrays differ in length or contain an invalid index.
+     */
+    public void unionAll(int[] p, int[] q) {
+        validateAll(p, q);
+        int m = p.length;
+        int ranges = Math.min(ForkJoinPool.getCommonPoolParallelism(), Math.max(1, parent.length / MIN_RANGE_SIZE));
+        if (m < PARALLEL_THRESHOLD || ranges < 2 || UnionFindProbe.ENABLED) {
+            for (int i = 0; i < m; i++) {
+                if (link(root(p[i]), root(q[i]))) count--;
+            }
+            return;
+        }
+
+        // Resolve the current roots once and bucket edges by range (bucket `ranges` holds crossing edges).
+        int rangeSize = (parent.length + ranges - 1) / ranges;
+        int[] rootP = new int[m];
+        int[] rootQ = new int[m];
+        int[] start = new int[ranges + 2];
+        for (int i = 0; i < m; i++) {
+            rootP[i] = root(p[i]);
+            rootQ[i] = root(q[i]);
+            start[bucket(rootP[i], rootQ[i], rangeSize, ranges) + 1]++;
+        }
+        for (int b = 0; b <= ranges; b++) {
+            start[b + 1] += start[b];
+        }
+        int[] next = Arrays.copyOf(start, ranges + 1);
+        int[] order = new int[m];
+        for (int i = 0; i < m; i++) {
+            order[next[bucket(rootP[i], rootQ[i], rangeSize, ranges)]++] = i;
+        }
+
+        // Union each range independently.
+        int[] merged = new int[ranges];
+        IntStream.range(0, ranges).parallel().forEach(r -> {
+            for (int k = start[r]; k < start[r + 1]; k++) {
+                int e = order[k];
+                if (link(root(rootP[e]), root(rootQ[e]))) merged[r]++;
+            }
+        });
+        for (int r = 0; r < ranges; r++) {
+            count -= merged[r];
+        }
+
+        // Final merge pass over the edges that cross ranges.
+        for (int k = start[ranges]; k < start[ranges + 1]; k++) {
+            int e = order[k];
+            if (link(root(rootP[e]), root(rootQ[e]))) count--;
+        }
+    }
+
+    /**
+     * @brief Checks every pair (p[i], q[i]) for connectivity.
+     *
+     * Equivalent to out[i] = connected(p[i], q[i]), with all indices validated
+     * once up front instead of twice per pair.
+     *
+     * @param p First elements of the pairs.
+     * @param q Second elements of the pairs.
+     * @param out Receives the answer for every pair; must be at least as long as p.
+     * @throws IllegalArgumentException if the arrays are too short or contain an invalid index.
+     */
+    public void connectedAll(int[] p, int[] q, boolean[] out) {
+        validateAll(p, q);
+        if (out.length < p.length) {
+            throw new IllegalArgumentException("Output array is shorter than the input arrays.");
+        }
+        for (int i = 0; i < p.length; i++) {
+            out[i] = root(p[i]) == root(q[i]);
+        }
+    }
+
+    /**
+     * @brief Range bucket of an edge given its two roots.
+     *
+     * @return The common range of both roots, or `ranges` if they differ.
+     */
+    private static int bucket(int rootP, int rootQ, int rangeSize, int ranges) {
+        int rangeP = rootP / rangeSize;
+        return rangeP == rootQ / rangeSize ? rangeP : ranges;
     }
 
     /**
@@ -162,6 +324,23 @@
         }
     }
 
+    /**
+     * @brief Validates two pair arrays used by the batch operations.
+     *
+     * @param p First elements of the pairs.
+     * @param q Second elements of the pairs.
+     * @throws IllegalArgumentException if the lengths differ or an index is out of bounds.
+     */
+    private void validateAll(int[] p, int[] q) {
+        if (p.length != q.length) {
+            throw new IllegalArgumentException("Pair arrays must have the same length.");
+        }
+        for (int i = 0; i < p.length; i++) {
+            validate(p[i]);
+            validate(q[i]);
+        }
+    }
+
     /**
      * @brief Reads input and processes union-find operations.
      * 
@@ -184,5 +363,8 @@
             StdOut.println(p + " " + q);
         }
         StdOut.println(uf.count() + " components");
+        if (UnionFindProbe.ENABLED) {
+            StdOut.println(uf.stats());
+        }
     }
 }
@@ -0,0 +1,213 @@
+/**
+ * Memory-compact Percolation for very large grids (n up to 46340, i.e. more
+ * than 10^8 sites).
+ *
+ * Same public API as {@link Percolation}, but:
+ * - Open/closed state is a bitset in a long[] (1 bit per site instead of one
+ *   boolean per site plus a row object per row).
+ * - Sites are addressed with a flat 0-based index (row * n + col); the public
+ *   methods validate their 1-based arguments once, the package-private
+ *   openSite() / connectNeighbors() skip validation entirely.
+ * - Instead of two virtual nodes, every union-find root carries two flags:
+ *   "connected to the top row" and "connected to the bottom row". The rank
+ *   (at most 31) and both flags share one byte per site, so the whole grid
+ *   takes about 5.1 bytes per site (20000x20000 fits in about 2 GB).
+ * - Because the top and bottom are not merged into one component, isFull()
+ *   does not suffer from backwash.
+ */
+public class CompactPercolation {
+
+    private static final int RANK_MASK = 0x1F;
+    private static final byte TOP = 0x20;
+    private static final byte BOTTOM = 0x40;
+
+    private final int gridSize;
+    private final long[] openSites;   // bit i is set iff site i is open
+    private final int[] parent;       // union-find parent of every site
+    private final byte[] state;       // rank and TOP/BOTTOM flags, valid for roots
+    private int openSitesCount;
+    private boolean percolates;
+
+    /**
+     * Creates an n-by-n grid, with all sites initially blocked.
+     *
+     * @param n the size of the grid
+     * @throws IllegalArgumentException if n <= 0 or n * n does not fit in an int
+     */
+    public CompactPercolation(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Grid size must be greater than 0.");
+        }
+        if ((long) n * n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid size must be at most 46340.");
+        }
+
+        gridSize = n;
+        int sites = n * n;
+        openSites = new long[(sites + 63) >>> 6];
+        parent = new int[sites];
+        state = new byte[sites];
+        for (int i = 0; i < sites; i++) {
+            parent[i] = i;
+        }
+    }
+
+    /**
+     * Opens the site (row, col) if it is not already open.
+     *
+     * @param row the row index (1-indexed)
+     * @param col the column index (1-indexed)
+     */
+    public void open(int row, int col) {
+        validateIndices(row, col);
+        openSite((row - 1) * gridSize + (col - 1));
+    }
+
+    /**
+     * Checks if the site (row, col) is open.
+     *
+     * @param row the row index (1-indexed)
+     * @param col the column index (1-indexed)
+     * @return true if the site is open, false otherwise
+     */
+    public boolean isOpen(int row, int col) {
+        validateIndices(row, col);
+        return isOpenSite((row - 1) * gridSize + (col - 1));
+    }
+
+    /**
+     * Checks if the site (row, col) is full.
+     *
+     * @param row the row index (1-indexed)
+     * @param col the column index (1-indexed)
+     * @return true if the site is full, false otherwise
+     */
+    public boolean isFull(int row, int col) {
+        validateIndices(row, col);
+        int site = (row - 1) * gridSize + (col - 1);
+        return isOpenSite(site) && (state[find(site)] & TOP) != 0;
+    }
+
+    /**
+     * Returns the number of open sites in the grid.
+     *
+     * @return the number of open sites
+     */
+    public int numberOfOpenSites() {
+        return openSitesCount;
+    }
+
+    /**
+     * Checks if the system percolates.
+     *
+     * @return true if the system percolates, false otherwise
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * Returns the size of the grid.
+     *
+     * @return n
+     */
+    int gridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Opens a site given by its flat 0-based index, without any validation.
+     *
+     * @param site row * n + col (0-based)
+     * @return true if the site was closed before
+     */
+    boolean openSite(int site) {
+        long bit = 1L << site;  // shift distance is taken mod 64
+        int word = site >>> 6;
+        if ((openSites[word] & bit) != 0) {
+            return false;
+        }
+        openSites[word] |= bit;
+        ++openSitesCount;
+
+        if (site < gridSize) {
+            state[site] |= TOP;
+        }
+        if (site >= parent.length - gridSize) {
+            state[site] |= BOTTOM;
+        }
+        if ((state[site] & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+            percolates = true;  // 1-by-1 grid
+        }
+        connectNeighbors(site);
+        return true;
+    }
+
+    /**
+     * Checks a site given by its flat 0-based index, without any validation.
+     *
+     * @param site row * n + col (0-based)
+     * @return true if the site is open
+     */
+    boolean isOpenSite(int site) {
+        return (openSites[site >>> 6] & (1L << site)) != 0;
+    }
+
+    /**
+     * Unions an open site with its open neighbors, without any validation.
+     *
+     * @param site row * n + col (0-based)
+     */
+    void connectNeighbors(int site) {
+        int col = site % gridSize;
+        if (site >= gridSize && isOpenSite(site - gridSize)) {
+            union(site, site - gridSize);
+        }
+        if (site < parent.length - gridSize && isOpenSite(site + gridSize)) {
+            union(site, site + gridSize);
+        }
+        if (col > 0 && isOpenSite(site - 1)) {
+            union(site, site - 1);
+        }
+        if (col < gridSize - 1 && isOpenSite(site + 1)) {
+            union(site, site + 1);
+        }
+    }
+
+    private int find(int site) {
+        while (site != parent[site]) {
+            parent[site] = parent[parent[site]];  // Path halving
+            site = parent[site];
+        }
+        return site;
+    }
+
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+
+        // Union by rank, the new root inherits the TOP/BOTTOM flags of both.
+        int rankP = state[rootP] & RANK_MASK;
+        int rankQ = state[rootQ] & RANK_MASK;
+        int flags = (state[rootP] | state[rootQ]) & (TOP | BOTTOM);
+        if (rankP < rankQ) {
+            parent[rootP] = rootQ;
+            state[rootQ] = (byte) (rankQ | flags);
+        } else {
+            parent[rootQ] = rootP;
+            state[rootP] = (byte) ((rankP == rankQ ? rankP + 1 : rankP) | flags);
+        }
+        if (flags == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    private void validateIndices(int row, int col) {
+        if (row < 1 || col < 1 || row > gridSize || col > gridSize) {
+            throw new IllegalArgumentException("Row or column index out of valid range.");
+        }
+    }
+}
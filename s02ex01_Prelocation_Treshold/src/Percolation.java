@@ -1,5 +1,7 @@
 import edu.princeton.cs.algs4.WeightedQuickUnionUF;
 
+import java.util.Arrays;
+
 public class Percolation {
 
     private final int virtualTopRow;
@@ -8,6 +10,11 @@ public class Percolation {
     private final WeightedQuickUnionUF unionFind;
     private final int gridSize;
     private final boolean[][] siteState;
+    private final long[] fullSites; // Only when tracking: bit (row - 1) * n + (col - 1) is set iff the site is full
+    private int[] newlyFull;        // Only when tracking: sites that became full since the last newlyFullSites() call
+    private int newlyFullCount;
+    private boolean bottomFull;     // Only when tracking: the grid percolates, so the bottom row's clusters are full too
+    private int[] fillStack = new int[16];
 
     /**
      * Creates an n-by-n grid, with all sites initially blocked.
@@ -16,11 +23,29 @@ public class Percolation {
      * @throws IllegalArgumentException if n <= 0
      */
     public Percolation(int n) {
+        this(n, false);
+    }
+
+    /**
+     * Creates an n-by-n grid, with all sites initially blocked, that optionally
+     * tracks which sites become full for newlyFullSites().
+     *
+     * Tracking makes open() flood newly full sites right away and remembers
+     * every site until newlyFullSites() is called, so only enable it when that
+     * method is called regularly.
+     *
+     * @param n              the size of the grid
+     * @param trackNewlyFull whether to track newly full sites
+     * @throws IllegalArgumentException if n <= 0
+     */
+    public Percolation(int n, boolean trackNewlyFull) {
         if (n <= 0) {
             throw new IllegalArgumentException("Grid size must be greater than 0.");
         }
 
         siteState = new boolean[n][n];
+        fullSites = trackNewlyFull ? newBitmap(n) : null;
+        newlyFull = trackNewlyFull ? new int[16] : null;
         unionFind = new WeightedQuickUnionUF(n * n + 2); // Plus two virtual nodes
         gridSize = n;
 
@@ -47,6 +72,10 @@ public class Percolation {
             siteState[row - 1][col - 1] = true;
             connectNeighbors(row, col);
             ++openSitesCount;
+            if (fullSites != null
+                    && (row == 1 || (row == gridSize && bottomFull) || hasFullNeighbor(row, col))) {
+                fillTracked(to1DIndex(row, col));
+            }
         }
     }
 
@@ -74,6 +103,49 @@ public class Percolation {
         return isOpen(row, col) && (unionFind.find(virtualTopRow) == unionFind.find(to1DIndex(row, col)));
     }
 
+    /**
+     * Returns all full sites at once, the same sites for which isFull() is true.
+     *
+     * One flood fill from the open sites of the top row (and, if the system
+     * percolates, from those of the bottom row, since isFull() sees them
+     * through the virtual bottom node) visits every full site once, with no
+     * union-find calls per site. A grid that tracks newly full sites already
+     * has the bitmap and only copies it.
+     *
+     * @return bitmap with bit (row - 1) * n + (col - 1) set iff the site is full
+     */
+    public long[] fullSites() {
+        if (fullSites != null) {
+            return fullSites.clone();
+        }
+        long[] full = newBitmap(gridSize);
+        for (int col = 0; col < gridSize; ++col) {
+            fill(full, col);
+        }
+        if (percolates()) {
+            for (int col = 0; col < gridSize; ++col) {
+                fill(full, gridSize * (gridSize - 1) + col);
+            }
+        }
+        return full;
+    }
+
+    /**
+     * Returns the sites that became full since the previous call (or since the
+     * grid was created), in the order they were filled.
+     *
+     * @return 0-based indices (row - 1) * n + (col - 1) of the newly full sites
+     * @throws IllegalStateException if the grid was not created with tracking enabled
+     */
+    public int[] newlyFullSites() {
+        if (newlyFull == null) {
+            throw new IllegalStateException("Create the grid with trackNewlyFull = true to track newly full sites.");
+        }
+        int[] sites = Arrays.copyOf(newlyFull, newlyFullCount);
+        newlyFullCount = 0;
+        return sites;
+    }
+
     /**
      * Returns the number of open sites in the grid.
      *
@@ -116,6 +188,105 @@ public class Percolation {
         }
     }
 
+    private boolean hasFullNeighbor(int row, int col) {
+        final int site = to1DIndex(row, col);
+        return (row > 1 && isSet(fullSites, site - gridSize))
+                || (row < gridSize && isSet(fullSites, site + gridSize))
+                || (col > 1 && isSet(fullSites, site - 1))
+                || (col < gridSize && isSet(fullSites, site + 1));
+    }
+
+    /**
+     * Fills the tracked bitmap from a newly full site. The first time the
+     * system percolates, the clusters of the bottom row become full as well,
+     * just like isFull() sees them through the virtual bottom node.
+     */
+    private void fillTracked(int start) {
+        fill(fullSites, start);
+        if (!bottomFull && percolates()) {
+            bottomFull = true;
+            for (int col = 0; col < gridSize; ++col) {
+                fill(fullSites, gridSize * (gridSize - 1) + col);
+            }
+        }
+    }
+
+    /**
+     * Marks the site as full, together with every open site reachable from it
+     * that was not full yet, unless the site is blocked or already full. Every
+     * site is filled at most once per bitmap, so all fills together take O(n^2)
+     * time.
+     */
+    private void fill(long[] full, int start) {
+        if (isSet(full, start) || !isOpenSite(start)) {
+            return;
+        }
+        markFull(full, start);
+        int stackSize = 0;
+        fillStack[stackSize++] = start;
+
+        while (stackSize > 0) {
+            final int site = fillStack[--stackSize];
+            final int row = site / gridSize;
+            final int col = site % gridSize;
+            if (row > 0) {
+                stackSize = fillNeighbor(full, site - gridSize, stackSize);
+            }
+            if (row < gridSize - 1) {
+                stackSize = fillNeighbor(full, site + gridSize, stackSize);
+            }
+            if (col > 0) {
+                stackSize = fillNeighbor(full, site - 1, stackSize);
+            }
+            if (col < gridSize - 1) {
+                stackSize = fillNeighbor(full, site + 1, stackSize);
+            }
+        }
+    }
+
+    /**
+     * Marks the neighbor as full and pushes it if it is open and not full yet.
+     *
+     * @return the new stack size
+     */
+    private int fillNeighbor(long[] full, int neighbor, int stackSize) {
+        if (isSet(full, neighbor) || !isOpenSite(neighbor)) {
+            return stackSize;
+        }
+        markFull(full, neighbor);
+        if (stackSize == fillStack.length) {
+            fillStack = Arrays.copyOf(fillStack, 2 * stackSize);
+        }
+        fillStack[stackSize] = neighbor;
+        return stackSize + 1;
+    }
+
+    /**
+     * Sets the bit of the site; when tracking, the only bitmap filled is the
+     * tracked one, so the site is also recorded for newlyFullSites().
+     */
+    private void markFull(long[] full, int site) {
+        full[site >>> 6] |= 1L << site;
+        if (newlyFull != null) {
+            if (newlyFullCount == newlyFull.length) {
+                newlyFull = Arrays.copyOf(newlyFull, 2 * newlyFullCount);
+            }
+            newlyFull[newlyFullCount++] = site;
+        }
+    }
+
+    private boolean isOpenSite(int site) {
+        return siteState[site / gridSize][site % gridSize];
+    }
+
+    private static boolean isSet(long[] bitmap, int site) {
+        return (bitmap[site >>> 6] & (1L << site)) != 0;
+    }
+
+    private static long[] newBitmap(int n) {
+        return new long[(int) (((long) n * n + 63) >>> 6)];
+    }
+
     private int to1DIndex(int row, int col) {
         validateIndices(row, col);
         return (gridSize * (row - 1)) + (col - 1);
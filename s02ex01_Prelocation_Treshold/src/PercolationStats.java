@@ -1,13 +1,34 @@
 import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.StdStats;
 
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
 public class PercolationStats {
 
+    /**
+     * How the seeded constructors pick the next site to open.
+     */
+    public enum Sampling {
+        /** Draw random sites and redraw until a closed one is found. */
+        REJECTION,
+        /**
+         * Newman-Ziff: open the sites in the order of one random permutation,
+         * drawn lazily with Fisher-Yates, so no draw is ever wasted.
+         */
+        PERMUTATION
+    }
+
     private static final double CONFIDENCE_95 = 1.96;
+    private static final int MIN_ADAPTIVE_TRIALS = 30;   // before this, the sample stddev is too noisy to stop on
 
     private final int gridSideSize;
     private final int trials;
     private final double[] thresholds;
+    private final int[] openCounts;   // number of open sites at which each trial percolated
 
     /**
      * Performs trials independent experiments on an n-by-n grid.
@@ -24,6 +45,7 @@ public class PercolationStats {
         this.gridSideSize = n;
         this.trials = trials;
         thresholds = new double[trials];
+        openCounts = new int[trials];
 
         for (int i = 0; i < trials; i++) {
             Percolation percolation = new Percolation(gridSideSize);
@@ -33,10 +55,206 @@ public class PercolationStats {
                 openRandomNode(percolation);
                 openCount++;
             }
+            openCounts[i] = openCount;
             thresholds[i] = (double) openCount / (gridSideSize * gridSideSize);
         }
     }
 
+    /**
+     * Performs trials independent experiments on an n-by-n grid in parallel.
+     *
+     * Trials run on the common ForkJoinPool. Trial i draws its sites from its own
+     * SplittableRandom, seeded with the i-th value of a master generator created
+     * from seed, and stores its threshold at index i. The results are therefore
+     * identical for a given seed, no matter how many threads ran the trials.
+     *
+     * @param n      the size of the grid (n-by-n)
+     * @param trials the number of independent experiments
+     * @param seed   the master seed
+     * @throws IllegalArgumentException if n <= 0 or trials <= 0
+     */
+    public PercolationStats(int n, int trials, long seed) {
+        this(n, trials, seed, Sampling.REJECTION);
+    }
+
+    /**
+     * Performs trials independent experiments on an n-by-n grid in parallel,
+     * choosing the sites to open with the given sampling strategy.
+     *
+     * Besides the thresholds, every trial records the number of open sites at
+     * which it percolated; see percolationCurve() and percolationProbability().
+     *
+     * @param n        the size of the grid (n-by-n)
+     * @param trials   the number of independent experiments
+     * @param seed     the master seed
+     * @param sampling how sites are picked
+     * @throws IllegalArgumentException if n <= 0 or trials <= 0
+     */
+    public PercolationStats(int n, int trials, long seed, Sampling sampling) {
+        if (n <= 0 || trials <= 0) {
+            throw new IllegalArgumentException("Grid size (n) and number of trials must be greater than zero.");
+        }
+
+        this.gridSideSize = n;
+        this.trials = trials;
+        thresholds = new double[trials];
+        openCounts = new int[trials];
+
+        SplittableRandom master = new SplittableRandom(seed);
+        long[] trialSeeds = new long[trials];
+        for (int i = 0; i < trials; i++) {
+            trialSeeds[i] = master.nextLong();
+        }
+        IntStream.range(0, trials).parallel()
+                .forEach(i -> openCounts[i] = runTrial(new SplittableRandom(trialSeeds[i]), sampling));
+        int sites = n * n;
+        for (int i = 0; i < trials; i++) {
+            thresholds[i] = (double) openCounts[i] / sites;
+        }
+    }
+
+    /**
+     * Runs experiments on an n-by-n grid until the 95% confidence interval of the
+     * mean threshold is at most halfWidth wide on each side, or maxTrials
+     * experiments have been run.
+     *
+     * Trials run in parallel batches, seeded exactly like the fixed-count
+     * constructor, so trial i is the same experiment in both. The first batch
+     * has 30 trials (or one per thread, if there are more threads); later
+     * batches aim at the number of trials the current variance estimate still
+     * needs, rounded up to whole rounds of the threads and at most doubling the
+     * trials so far. The finished trials
+     * are fed in index order into a running mean and variance (Welford), and the
+     * run stops at the first trial count k (at least 30) with
+     * 1.96 * s / sqrt(k) <= halfWidth. Trials of the last batch beyond k are
+     * discarded, which keeps the result independent of the batch size and of the
+     * number of threads. trials() reports how many experiments were kept.
+     *
+     * @param n         the size of the grid (n-by-n)
+     * @param halfWidth the target half-width of the 95% confidence interval
+     * @param maxTrials the maximum number of experiments
+     * @param seed      the master seed
+     * @param sampling  how sites are picked
+     * @throws IllegalArgumentException if n <= 0, maxTrials <= 0 or halfWidth <= 0
+     */
+    public PercolationStats(int n, double halfWidth, int maxTrials, long seed, Sampling sampling) {
+        if (n <= 0 || maxTrials <= 0) {
+            throw new IllegalArgumentException("Grid size (n) and number of trials must be greater than zero.");
+        }
+        if (!(halfWidth > 0)) {
+            throw new IllegalArgumentException("Confidence interval half-width must be greater than zero.");
+        }
+
+        this.gridSideSize = n;
+        SplittableRandom master = new SplittableRandom(seed);
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int[] counts = new int[Math.min(maxTrials, Math.max(MIN_ADAPTIVE_TRIALS, parallelism))];
+        int sites = n * n;
+        int done = 0;
+        double mean = 0;
+        double squares = 0;   // sum of squared deviations from the running mean
+
+        while (done < maxTrials) {
+            int batch = Math.min(adaptiveBatch(done, squares, halfWidth, parallelism), maxTrials - done);
+            if (done + batch > counts.length) {
+                counts = Arrays.copyOf(counts, (int) Math.min(maxTrials, Math.max(2L * counts.length, done + batch)));
+            }
+            long[] batchSeeds = new long[batch];
+            for (int i = 0; i < batch; i++) {
+                batchSeeds[i] = master.nextLong();
+            }
+            int[] results = counts;
+            int offset = done;
+            IntStream.range(0, batch).parallel()
+                    .forEach(i -> results[offset + i] = runTrial(new SplittableRandom(batchSeeds[i]), sampling));
+
+            boolean narrowEnough = false;
+            for (int i = 0; i < batch && !narrowEnough; i++) {
+                double x = (double) counts[done] / sites;
+                ++done;
+                double delta = x - mean;
+                mean += delta / done;
+                squares += delta * (x - mean);
+                narrowEnough = done >= MIN_ADAPTIVE_TRIALS
+                        && CONFIDENCE_95 * Math.sqrt(squares / (done - 1) / done) <= halfWidth;
+            }
+            if (narrowEnough) {
+                break;
+            }
+        }
+
+        this.trials = done;
+        openCounts = Arrays.copyOf(counts, done);
+        thresholds = new double[done];
+        for (int i = 0; i < done; i++) {
+            thresholds[i] = (double) openCounts[i] / sites;
+        }
+    }
+
+    /**
+     * Number of trials to start next in adaptive mode: the trials still needed
+     * if the sample variance so far is right, rounded up to whole rounds of
+     * the threads, at least one round and at most as many as done so far.
+     */
+    private static int adaptiveBatch(int done, double squares, double halfWidth, int parallelism) {
+        if (done < MIN_ADAPTIVE_TRIALS) {
+            return Math.max(MIN_ADAPTIVE_TRIALS - done, parallelism);
+        }
+        double spread = CONFIDENCE_95 * Math.sqrt(squares / (done - 1)) / halfWidth;
+        double missing = Math.min(spread * spread - done, done);
+        long rounds = Math.max(1, (long) Math.ceil(missing / parallelism));
+        return (int) Math.min(Integer.MAX_VALUE, rounds * parallelism);
+    }
+
+    /**
+     * Runs one trial with the given sampling strategy.
+     */
+    private int runTrial(SplittableRandom random, Sampling sampling) {
+        return sampling == Sampling.PERMUTATION ? runPermutationTrial(random) : runTrial(random);
+    }
+
+    /**
+     * Opens random sites of a new grid until it percolates.
+     *
+     * @param random the source of random sites for this trial
+     * @return the number of open sites at the moment the grid percolates
+     */
+    private int runTrial(SplittableRandom random) {
+        CompactPercolation percolation = new CompactPercolation(gridSideSize);
+        int sites = gridSideSize * gridSideSize;
+
+        while (!percolation.percolates()) {
+            percolation.openSite(random.nextInt(sites)); // Already open sites are simply drawn again
+        }
+        return percolation.numberOfOpenSites();
+    }
+
+    /**
+     * Opens the sites of a new grid in random permutation order until it percolates.
+     *
+     * @param random the source of the permutation for this trial
+     * @return the number of open sites at the moment the grid percolates
+     */
+    private int runPermutationTrial(SplittableRandom random) {
+        CompactPercolation percolation = new CompactPercolation(gridSideSize);
+        int sites = gridSideSize * gridSideSize;
+        int[] order = new int[sites];
+        for (int i = 0; i < sites; i++) {
+            order[i] = i;
+        }
+
+        int opened = 0;
+        while (!percolation.percolates()) {
+            // One Fisher-Yates step: pick the next site among those not opened yet.
+            int j = opened + random.nextInt(sites - opened);
+            int site = order[j];
+            order[j] = order[opened];
+            order[opened++] = site;
+            percolation.openSite(site);
+        }
+        return opened;
+    }
+
     /**
      * Opens a random site in the grid that is not already open.
      *
@@ -71,6 +289,86 @@ public class PercolationStats {
         return StdStats.stddev(thresholds);
     }
 
+    /**
+     * Returns the number of experiments the statistics are based on.
+     *
+     * @return the number of trials
+     */
+    public int trials() {
+        return trials;
+    }
+
+    /**
+     * Returns the fraction of trials that percolate with k open sites, for every
+     * k from 0 to n * n. Since opening more sites never stops a grid from
+     * percolating, every trial contributes a step at its own threshold.
+     *
+     * @return array of length n * n + 1, non-decreasing from 0 to 1
+     */
+    public double[] percolationCurve() {
+        int sites = gridSideSize * gridSideSize;
+        double[] curve = new double[sites + 1];
+        for (int count : openCounts) {
+            curve[count] += 1.0;
+        }
+        double percolating = 0;
+        for (int k = 0; k <= sites; k++) {
+            percolating += curve[k];
+            curve[k] = percolating / trials;
+        }
+        return curve;
+    }
+
+    /**
+     * Estimates the probability that the grid percolates when every site is
+     * open independently with probability p. The curve over open-site counts is
+     * weighted with the binomial distribution of the number of open sites
+     * (Newman-Ziff convolution), so any p can be evaluated from a single run.
+     *
+     * @param p the site vacancy probability
+     * @return the estimated percolation probability
+     * @throws IllegalArgumentException if p is not between 0 and 1
+     */
+    public double percolationProbability(double p) {
+        if (!(p >= 0.0 && p <= 1.0)) {
+            throw new IllegalArgumentException("Probability must be between 0 and 1.");
+        }
+        return convolve(percolationCurve(), p);
+    }
+
+    /**
+     * Weights curve[k] with Binomial(N, p) probabilities, N = curve.length - 1.
+     * The weights are built by their ratio recurrence outward from the mode and
+     * normalized at the end, which avoids overflowing factorials.
+     */
+    private static double convolve(double[] curve, double p) {
+        int sites = curve.length - 1;
+        if (p == 0.0) {
+            return curve[0];
+        }
+        if (p == 1.0) {
+            return curve[sites];
+        }
+        int mode = (int) Math.min(sites, Math.floor((sites + 1) * p));
+        double odds = p / (1 - p);
+        double total = 1.0;
+        double sum = curve[mode];
+
+        double weight = 1.0;
+        for (int k = mode; k < sites && weight > 1e-17 * total; k++) {
+            weight *= (double) (sites - k) / (k + 1) * odds;
+            total += weight;
+            sum += weight * curve[k + 1];
+        }
+        weight = 1.0;
+        for (int k = mode; k > 0 && weight > 1e-17 * total; k--) {
+            weight *= (double) k / (sites - k + 1) / odds;
+            total += weight;
+            sum += weight * curve[k - 1];
+        }
+        return sum / total;
+    }
+
     /**
      * Calculates the lower bound of the 95% confidence interval.
      *
@@ -92,18 +390,35 @@ public class PercolationStats {
     /**
      * Entry point of the program.
      *
-     * @param args command-line arguments: grid size and number of trials
+     * @param args command-line arguments: grid size, number of trials, an
+     *             optional seed that switches to parallel, reproducible trials
+     *             an optional sampling strategy (rejection or permutation) and
+     *             an optional target half-width of the confidence interval, in
+     *             which case the number of trials is only an upper bound
      */
     public static void main(String[] args) {
         if (args.length < 2) {
-            throw new IllegalArgumentException("Usage: java PercolationStats <grid size> <number of trials>");
+            throw new IllegalArgumentException(
+                    "Usage: java PercolationStats <grid size> <number of trials> [seed [rejection|permutation [half-width]]]");
         }
 
         int n = Integer.parseInt(args[0]);
         int trials = Integer.parseInt(args[1]);
 
-        PercolationStats percolationStats = new PercolationStats(n, trials);
+        PercolationStats percolationStats;
+        if (args.length > 4) {
+            Sampling sampling = Sampling.valueOf(args[3].toUpperCase(Locale.ROOT));
+            percolationStats = new PercolationStats(n, Double.parseDouble(args[4]), trials, Long.parseLong(args[2]), sampling);
+        } else if (args.length > 3) {
+            Sampling sampling = Sampling.valueOf(args[3].toUpperCase(Locale.ROOT));
+            percolationStats = new PercolationStats(n, trials, Long.parseLong(args[2]), sampling);
+        } else if (args.length > 2) {
+            percolationStats = new PercolationStats(n, trials, Long.parseLong(args[2]));
+        } else {
+            percolationStats = new PercolationStats(n, trials);
+        }
 
+        System.out.printf("trials:\t\t\t\t = %d%n", percolationStats.trials());
         System.out.printf("mean:\t\t\t\t = %.16f%n", percolationStats.mean());
         System.out.printf("stddev:\t\t\t\t = %.16f%n", percolationStats.stddev());
         System.out.printf("95%% confidence interval:\t = [%.16f, %.16f]%n",
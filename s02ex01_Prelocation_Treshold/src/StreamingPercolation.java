@@ -0,0 +1,302 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Row-by-row percolation check (Hoshen-Kopelman) in O(columns) memory.
+ *
+ * {@link Percolation} keeps state for every site, so the grid size is limited
+ * by the heap. Here the grid is fed in one row at a time and only these are
+ * kept:
+ * - the cluster label of every site of the previous row,
+ * - a "connected to the top row" flag per label,
+ * - a union-find over the labels of the previous and the current row, which
+ *   records that two labels met further down in the current row.
+ * After every row the labels are renumbered 0, 1, 2, ... so they never exceed
+ * the number of columns, and labels of clusters that did not reach the new row
+ * are forgotten: they can never reach the bottom anymore.
+ *
+ * Once no cluster of the current row is connected to the top, the grid cannot
+ * percolate, and the static percolates() methods stop reading.
+ *
+ * Rows are bitmaps: bit c of the long[] is column c (0-based).
+ */
+public class StreamingPercolation {
+
+    /**
+     * Supplies the rows of a grid from top to bottom.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        /**
+         * Fills the next row into open (bit c set iff column c is open).
+         *
+         * @param open the row bitmap to fill, all bits cleared
+         * @return false if there are no more rows, in which case open is ignored
+         * @throws IOException if the row cannot be read
+         */
+        boolean nextRow(long[] open) throws IOException;
+    }
+
+    private static final int CLOSED = -1;
+
+    private final int columns;
+    private int[] labels;        // label of every site of the last row, CLOSED if not open
+    private boolean[] top;       // top[label] is true iff the cluster is connected to the top row
+    private int[] nextLabels;
+    private boolean[] nextTop;
+    private final int[] parent;  // union-find over previous labels [0, columns) and new labels [columns, 2 * columns)
+    private final boolean[] connectedToTop;     // flag of every union-find root
+    private final long[] usedInRow;             // row in which a previous label was last put into the union-find
+    private final int[] renumbered;             // new label of a root, valid if renumberedInRow[root] == rows
+    private final long[] renumberedInRow;
+    private long rows;
+    private boolean reachesLastRow;
+
+    /**
+     * Creates an evaluator for grids with the given number of columns.
+     *
+     * @param columns the number of sites per row
+     * @throws IllegalArgumentException if columns <= 0 or columns > 2^30
+     */
+    public StreamingPercolation(int columns) {
+        if (columns <= 0 || columns > 1 << 30) {
+            throw new IllegalArgumentException("Number of columns must be between 1 and 2^30.");
+        }
+        this.columns = columns;
+        labels = new int[columns];
+        nextLabels = new int[columns];
+        top = new boolean[columns];
+        nextTop = new boolean[columns];
+        parent = new int[2 * columns];
+        connectedToTop = new boolean[2 * columns];
+        usedInRow = new long[columns];
+        renumbered = new int[2 * columns];
+        renumberedInRow = new long[2 * columns];
+        Arrays.fill(usedInRow, -1);
+        Arrays.fill(renumberedInRow, -1);
+    }
+
+    /**
+     * Appends the next row at the bottom of the grid.
+     *
+     * @param open the row bitmap, bit c set iff column c is open
+     * @return true if some open site of this row is connected to the top row
+     * @throws IllegalArgumentException if the bitmap is shorter than columns bits
+     */
+    public boolean addRow(long[] open) {
+        if (open.length < (columns + 63) >>> 6) {
+            throw new IllegalArgumentException("Row bitmap must hold at least " + columns + " bits.");
+        }
+        boolean firstRow = rows == 0;
+        int nextFree = columns;
+
+        for (int c = 0; c < columns; c++) {
+            if ((open[c >>> 6] & (1L << c)) == 0) {
+                nextLabels[c] = CLOSED;
+                continue;
+            }
+            int left = c > 0 ? nextLabels[c - 1] : CLOSED;
+            int up = firstRow ? CLOSED : labels[c];
+            if (up != CLOSED) {
+                usePreviousLabel(up);
+            }
+            if (left != CLOSED) {
+                if (up != CLOSED) {
+                    union(left, up);
+                }
+                nextLabels[c] = left;
+            } else if (up != CLOSED) {
+                nextLabels[c] = up;
+            } else {
+                parent[nextFree] = nextFree;
+                connectedToTop[nextFree] = firstRow;
+                nextLabels[c] = nextFree++;
+            }
+        }
+
+        // Renumber the roots of the new row's clusters to 0, 1, 2, ...
+        int count = 0;
+        boolean reachesTop = false;
+        for (int c = 0; c < columns; c++) {
+            if (nextLabels[c] == CLOSED) {
+                continue;
+            }
+            int root = find(nextLabels[c]);
+            if (renumberedInRow[root] != rows) {
+                renumberedInRow[root] = rows;
+                renumbered[root] = count;
+                nextTop[count] = connectedToTop[root];
+                reachesTop |= connectedToTop[root];
+                count++;
+            }
+            nextLabels[c] = renumbered[root];
+        }
+        rows++;
+
+        int[] swapLabels = labels;
+        labels = nextLabels;
+        nextLabels = swapLabels;
+        boolean[] swapTop = top;
+        top = nextTop;
+        nextTop = swapTop;
+        reachesLastRow = reachesTop;
+        return reachesTop;
+    }
+
+    /**
+     * Checks if the top row is connected to the last row added so far.
+     *
+     * @return true if the grid of all rows added so far percolates
+     */
+    public boolean percolates() {
+        return reachesLastRow;
+    }
+
+    /**
+     * Returns the number of rows added so far.
+     *
+     * @return the number of rows
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * Reads a grid row by row and checks if it percolates. Stops reading as soon
+     * as no cluster is connected to the top anymore.
+     *
+     * @param columns the number of sites per row
+     * @param source  the rows of the grid, from top to bottom
+     * @return true if the top row is connected to the bottom row
+     * @throws IOException if the source cannot be read
+     */
+    public static boolean percolates(int columns, RowSource source) throws IOException {
+        StreamingPercolation percolation = new StreamingPercolation(columns);
+        long[] row = new long[(columns + 63) >>> 6];
+        while (source.nextRow(row)) {
+            if (!percolation.addRow(row)) {
+                return false;
+            }
+            Arrays.fill(row, 0);
+        }
+        return percolation.percolates();
+    }
+
+    /**
+     * Reads a grid from a text file with one row per line, '1' for an open and
+     * '0' for a blocked site, and checks if it percolates. The number of columns
+     * is the length of the first line.
+     *
+     * @param file the grid file
+     * @return true if the top row is connected to the bottom row
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is empty, rows differ in
+     *                                  length or contain other characters
+     */
+    public static boolean percolates(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String first = reader.readLine();
+            if (first == null || first.isEmpty()) {
+                throw new IllegalArgumentException("Grid file must start with a non-empty row.");
+            }
+            String[] pending = {first};
+            return percolates(first.length(), open -> {
+                String line = pending[0] != null ? pending[0] : reader.readLine();
+                pending[0] = null;
+                if (line == null || line.isEmpty()) {
+                    return false;
+                }
+                if (line.length() != first.length()) {
+                    throw new IllegalArgumentException("Every row must have " + first.length() + " sites.");
+                }
+                for (int c = 0; c < line.length(); c++) {
+                    char site = line.charAt(c);
+                    if (site == '1') {
+                        open[c >>> 6] |= 1L << c;
+                    } else if (site != '0') {
+                        throw new IllegalArgumentException("Sites must be '0' or '1', found '" + site + "'.");
+                    }
+                }
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Puts a label of the previous row into the union-find, once per row.
+     */
+    private void usePreviousLabel(int label) {
+        if (usedInRow[label] != rows) {
+            usedInRow[label] = rows;
+            parent[label] = label;
+            connectedToTop[label] = top[label];
+        }
+    }
+
+    private int find(int label) {
+        while (label != parent[label]) {
+            parent[label] = parent[parent[label]];  // Path halving
+            label = parent[label];
+        }
+        return label;
+    }
+
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+        parent[rootQ] = rootP;
+        connectedToTop[rootP] |= connectedToTop[rootQ];
+    }
+
+    /**
+     * Checks a grid file, or a random grid generated on the fly in which every
+     * site is open with probability p.
+     *
+     * @param args command-line arguments: a grid file, or columns, rows,
+     *             vacancy probability and an optional seed
+     * @throws IOException if the grid file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1) {
+            System.out.printf("percolates:\t = %b%n", percolates(Path.of(args[0])));
+            return;
+        }
+        if (args.length < 3) {
+            throw new IllegalArgumentException(
+                    "Usage: java StreamingPercolation <grid file> | <columns> <rows> <probability> [seed]");
+        }
+
+        int columns = Integer.parseInt(args[0]);
+        long rows = Long.parseLong(args[1]);
+        double p = Double.parseDouble(args[2]);
+        SplittableRandom random = args.length > 3 ? new SplittableRandom(Long.parseLong(args[3])) : new SplittableRandom();
+
+        long[] generated = {0};
+        long start = System.nanoTime();
+        boolean percolates = percolates(columns, open -> {
+            if (generated[0] == rows) {
+                return false;
+            }
+            generated[0]++;
+            for (int c = 0; c < columns; c++) {
+                if (random.nextDouble() < p) {
+                    open[c >>> 6] |= 1L << c;
+                }
+            }
+            return true;
+        });
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("rows read:\t = %d%n", generated[0]);
+        System.out.printf("percolates:\t = %b%n", percolates);
+        System.out.printf("time:\t\t = %.3f s%n", elapsed / 1e9);
+    }
+}
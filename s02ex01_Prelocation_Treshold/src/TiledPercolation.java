@@ -0,0 +1,318 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Percolation check for a grid whose open sites are all known up front.
+ *
+ * {@link Percolation} and {@link CompactPercolation} open one site at a time
+ * and therefore run on a single thread. Here the whole open-site bitmap is
+ * given at once (bit i of the long[] is site i = row * n + col, 0-based), and
+ * the clusters are labeled in three steps:
+ * - The grid is cut into square tiles. Every tile unions its open sites with
+ *   their open neighbors inside the same tile. Tiles own disjoint parts of the
+ *   union-find arrays, so they are labeled in parallel without any locking.
+ * - The clusters are merged along the tile boundaries, on one thread. Only
+ *   about 2 * n * n / tileSize pairs of sites are looked at in this step.
+ * - Every root gets the flags "touches the top row" and "touches the bottom
+ *   row", and the bitmap of full sites is built in parallel over ranges of 64
+ *   sites, with finds that do not modify the union-find.
+ *
+ * As in CompactPercolation, the top and bottom are not merged into one
+ * component, so isFull() does not suffer from backwash.
+ */
+public class TiledPercolation {
+
+    private static final int DEFAULT_TILE_SIZE = 256;
+    private static final byte TOP = 0x1;
+    private static final byte BOTTOM = 0x2;
+
+    private final int gridSize;
+    private final int tileSize;
+    private final long[] openSites;   // bit i is set iff site i is open
+    private final long[] fullSites;   // bit i is set iff site i is full
+    private final int[] parent;       // union-find parent of every site
+    private final byte[] rank;        // union by rank, valid for roots
+    private final byte[] flags;       // TOP/BOTTOM flags, valid for roots
+    private final int openSitesCount;
+    private final boolean percolates;
+
+    /**
+     * Labels an n-by-n grid with the default tile size.
+     *
+     * @param n         the size of the grid
+     * @param openSites bitmap of the open sites, bit (row * n + col) for 0-based row and col
+     * @throws IllegalArgumentException if n <= 0, n * n does not fit in an int
+     *                                  or the bitmap is shorter than n * n bits
+     */
+    public TiledPercolation(int n, long[] openSites) {
+        this(n, openSites, DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Labels an n-by-n grid, cut into tiles of tileSize-by-tileSize sites.
+     *
+     * @param n         the size of the grid
+     * @param openSites bitmap of the open sites, bit (row * n + col) for 0-based row and col
+     * @param tileSize  the side length of a tile
+     * @throws IllegalArgumentException if n <= 0, n * n does not fit in an int,
+     *                                  the bitmap is shorter than n * n bits or tileSize <= 0
+     */
+    public TiledPercolation(int n, long[] openSites, int tileSize) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Grid size must be greater than 0.");
+        }
+        if ((long) n * n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid size must be at most 46340.");
+        }
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be greater than 0.");
+        }
+        int sites = n * n;
+        int words = (sites + 63) >>> 6;
+        if (openSites.length < words) {
+            throw new IllegalArgumentException("Open-site bitmap must hold at least n * n bits.");
+        }
+
+        gridSize = n;
+        this.tileSize = Math.min(tileSize, n);
+        this.openSites = Arrays.copyOf(openSites, words);
+        if ((sites & 63) != 0) {
+            this.openSites[words - 1] &= (1L << sites) - 1;  // Ignore bits beyond the last site
+        }
+        parent = new int[sites];
+        rank = new byte[sites];
+        flags = new byte[sites];
+
+        int count = 0;
+        for (long word : this.openSites) {
+            count += Long.bitCount(word);
+        }
+        openSitesCount = count;
+
+        int tilesPerSide = (n + this.tileSize - 1) / this.tileSize;
+        IntStream.range(0, tilesPerSide * tilesPerSide).parallel()
+                .forEach(tile -> labelTile(tile / tilesPerSide, tile % tilesPerSide));
+        mergeTileBoundaries();
+        percolates = markTopAndBottom();
+
+        fullSites = new long[words];
+        IntStream.range(0, words).parallel().forEach(this::fillFullSites);
+    }
+
+    /**
+     * Checks if the site (row, col) is open.
+     *
+     * @param row the row index (1-indexed)
+     * @param col the column index (1-indexed)
+     * @return true if the site is open, false otherwise
+     */
+    public boolean isOpen(int row, int col) {
+        validateIndices(row, col);
+        return isSet(openSites, (row - 1) * gridSize + (col - 1));
+    }
+
+    /**
+     * Checks if the site (row, col) is full.
+     *
+     * @param row the row index (1-indexed)
+     * @param col the column index (1-indexed)
+     * @return true if the site is full, false otherwise
+     */
+    public boolean isFull(int row, int col) {
+        validateIndices(row, col);
+        return isSet(fullSites, (row - 1) * gridSize + (col - 1));
+    }
+
+    /**
+     * Returns the number of open sites in the grid.
+     *
+     * @return the number of open sites
+     */
+    public int numberOfOpenSites() {
+        return openSitesCount;
+    }
+
+    /**
+     * Checks if the system percolates.
+     *
+     * @return true if the system percolates, false otherwise
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * Returns the full sites as a bitmap in the same layout as the input.
+     *
+     * @return a copy of the full-site bitmap
+     */
+    public long[] fullSites() {
+        return fullSites.clone();
+    }
+
+    /**
+     * Unions the open sites of one tile with their open neighbors in the same tile.
+     * Only touches parent and rank entries of sites inside the tile.
+     */
+    private void labelTile(int tileRow, int tileCol) {
+        int rowStart = tileRow * tileSize;
+        int colStart = tileCol * tileSize;
+        int rowEnd = Math.min(rowStart + tileSize, gridSize);
+        int colEnd = Math.min(colStart + tileSize, gridSize);
+
+        for (int row = rowStart; row < rowEnd; row++) {
+            for (int col = colStart; col < colEnd; col++) {
+                int site = row * gridSize + col;
+                parent[site] = site;
+                if (!isSet(openSites, site)) {
+                    continue;
+                }
+                if (row > rowStart && isSet(openSites, site - gridSize)) {
+                    union(site, site - gridSize);
+                }
+                if (col > colStart && isSet(openSites, site - 1)) {
+                    union(site, site - 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unions open sites on both sides of every tile boundary.
+     */
+    private void mergeTileBoundaries() {
+        for (int boundary = tileSize; boundary < gridSize; boundary += tileSize) {
+            for (int i = 0; i < gridSize; i++) {
+                int below = boundary * gridSize + i;           // row boundary, column i
+                if (isSet(openSites, below) && isSet(openSites, below - gridSize)) {
+                    union(below, below - gridSize);
+                }
+                int right = i * gridSize + boundary;           // row i, column boundary
+                if (isSet(openSites, right) && isSet(openSites, right - 1)) {
+                    union(right, right - 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Flags the roots of all clusters that touch the top or the bottom row.
+     *
+     * @return true if some cluster touches both
+     */
+    private boolean markTopAndBottom() {
+        int bottomRow = (gridSize - 1) * gridSize;
+        for (int col = 0; col < gridSize; col++) {
+            if (isSet(openSites, col)) {
+                flags[find(col)] |= TOP;
+            }
+        }
+        boolean percolating = false;
+        for (int col = 0; col < gridSize; col++) {
+            if (isSet(openSites, bottomRow + col)) {
+                int root = find(bottomRow + col);
+                flags[root] |= BOTTOM;
+                percolating |= (flags[root] & TOP) != 0;
+            }
+        }
+        return percolating;
+    }
+
+    /**
+     * Computes word w of the full-site bitmap. The union-find is only read here,
+     * so any number of words can be filled concurrently.
+     */
+    private void fillFullSites(int w) {
+        long open = openSites[w];
+        long full = 0;
+        while (open != 0) {
+            int bit = Long.numberOfTrailingZeros(open);
+            open &= open - 1;
+            if ((flags[root((w << 6) + bit)] & TOP) != 0) {
+                full |= 1L << bit;
+            }
+        }
+        fullSites[w] = full;
+    }
+
+    private int find(int site) {
+        while (site != parent[site]) {
+            parent[site] = parent[parent[site]];  // Path halving
+            site = parent[site];
+        }
+        return site;
+    }
+
+    /**
+     * Like find(), but without path halving.
+     */
+    private int root(int site) {
+        while (site != parent[site]) {
+            site = parent[site];
+        }
+        return site;
+    }
+
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+        if (rank[rootP] < rank[rootQ]) {
+            parent[rootP] = rootQ;
+        } else {
+            parent[rootQ] = rootP;
+            if (rank[rootP] == rank[rootQ]) {
+                rank[rootP]++;
+            }
+        }
+    }
+
+    private static boolean isSet(long[] bitmap, int site) {
+        return (bitmap[site >>> 6] & (1L << site)) != 0;
+    }
+
+    private void validateIndices(int row, int col) {
+        if (row < 1 || col < 1 || row > gridSize || col > gridSize) {
+            throw new IllegalArgumentException("Row or column index out of valid range.");
+        }
+    }
+
+    /**
+     * Labels a random n-by-n grid in which every site is open with probability p.
+     *
+     * @param args command-line arguments: grid size, vacancy probability and an
+     *             optional seed
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: java TiledPercolation <grid size> <probability> [seed]");
+        }
+
+        int n = Integer.parseInt(args[0]);
+        double p = Double.parseDouble(args[1]);
+        SplittableRandom random = args.length > 2 ? new SplittableRandom(Long.parseLong(args[2])) : new SplittableRandom();
+
+        long[] open = new long[(int) (((long) n * n + 63) >>> 6)];
+        for (int site = 0; site < n * n; site++) {
+            if (random.nextDouble() < p) {
+                open[site >>> 6] |= 1L << site;
+            }
+        }
+
+        long start = System.nanoTime();
+        TiledPercolation percolation = new TiledPercolation(n, open);
+        long elapsed = System.nanoTime() - start;
+
+        int full = 0;
+        for (long word : percolation.fullSites()) {
+            full += Long.bitCount(word);
+        }
+        System.out.printf("open sites:\t = %d%n", percolation.numberOfOpenSites());
+        System.out.printf("full sites:\t = %d%n", full);
+        System.out.printf("percolates:\t = %b%n", percolation.percolates());
+        System.out.printf("time:\t\t = %.3f s%n", elapsed / 1e9);
+    }
+}
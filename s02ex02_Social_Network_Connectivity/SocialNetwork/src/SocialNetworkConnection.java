@@ -1,4 +1,20 @@
-```java
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongPredicate;
+
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -21,10 +37,25 @@ import static org.junit.Assert.*;
  * - `find()` returns the root of the set containing a given element.
  * - `findLargest()` returns the largest element in the connected component 
  *   containing the given element.
+ * - `addAggregate()` registers further per-component aggregates (min, max, 
+ *   sum or any associative combiner) that `union()` merges in O(1), read back 
+ *   with `aggregate()` / `doubleAggregate()`; `componentSize()` gives the 
+ *   member count of a component.
+ * - With `-Dunionfind.instrument=true`, `stats()` reports path lengths, 
+ *   links rewritten by path halving and union size ratios (see UnionFindProbe).
  * - The `union()` method merges two sets if they are not already connected.
  * - The `count()` method returns the number of disjoint sets.
  * - `findEarliestConnection()` processes the log entries and returns the 
  *   earliest timestamp when all members are connected.
+ * - `GrowableUnionFind` is the same data structure for an open-ended set of
+ *   members: `makeSet()` adds a member in amortized O(1), backed by chunked
+ *   primitive arrays so that growing never copies the existing elements.
+ * - `findEarliestConnection(logs, onConnected)` runs on open-ended `FriendshipLogs`
+ *   streams with sparse member ids and reports every time all members seen so
+ *   far become connected.
+ * - `findEarliestConnection(n, logFiles, maxLogsInMemory)` handles unsorted 
+ *   log files larger than memory with an external merge sort on timestamp and 
+ *   stops reading as soon as all members are connected.
  * 
  * This solution ensures a time complexity of O(m log n) where m is the number 
  * of logs and n is the number of members.
@@ -39,6 +70,15 @@ public class SocialNetworkConnection {
         private int[] largest; // Stores the largest element in each connected component
         private int count;     // Number of disjoint sets
         
+        // Registered per-component aggregates, values valid for roots only.
+        private long[][] longAggregates = new long[0][];
+        private LongBinaryOperator[] longCombiners = new LongBinaryOperator[0];
+        private double[][] doubleAggregates = new double[0][];
+        private DoubleBinaryOperator[] doubleCombiners = new DoubleBinaryOperator[0];
+        
+        // Statistics, only when instrumented.
+        private final UnionFindProbe probe = UnionFindProbe.ENABLED ? new UnionFindProbe("SocialNetworkConnection.UnionFind") : null;
+        
         /**
          * Constructor to initialize the Union-Find data structure.
          * @param n The number of elements in the set.
@@ -62,13 +102,34 @@ public class SocialNetworkConnection {
          */
         public int find(int p) {
             validate(p);
+            int length = 0;
+            int rewritten = 0;
             while (p != parent[p]) {
+                if (UnionFindProbe.ENABLED) {
+                    boolean skipsNode = parent[p] != parent[parent[p]];
+                    length += skipsNode ? 2 : 1;
+                    rewritten += skipsNode ? 1 : 0;
+                }
                 parent[p] = parent[parent[p]];  // Path compression
                 p = parent[p];
             }
+            if (UnionFindProbe.ENABLED) probe.recordFind(length, rewritten);
             return p;
         }
         
+        /**
+         * Returns find/union statistics collected so far. Only available when 
+         * the JVM runs with -Dunionfind.instrument=true; see UnionFindProbe.
+         * @return Snapshot of the statistics of this instance.
+         * @throws IllegalStateException if instrumentation is off.
+         */
+        public UnionFindProbe.Snapshot stats() {
+            if (!UnionFindProbe.ENABLED) {
+                throw new IllegalStateException("Instrumentation is off, run with -Dunionfind.instrument=true");
+            }
+            return probe.snapshot();
+        }
+        
         /**
          * Finds the largest element in the connected component containing element p.
          * @param p The element to find the largest in its component.
@@ -92,19 +153,129 @@ public class SocialNetworkConnection {
             
             if (rootP == rootQ) return;  // They are already in the same set
             
+            if (UnionFindProbe.ENABLED) {
+                probe.recordUnion(Math.max(size[rootP], size[rootQ]), Math.min(size[rootP], size[rootQ]), count - 1);
+            }
+            
             // Union by size: attach smaller tree to larger one
             if (size[rootP] < size[rootQ]) {
                 parent[rootP] = rootQ;
                 size[rootQ] += size[rootP];
                 largest[rootQ] = Math.max(largest[rootP], largest[rootQ]);
+                mergeAggregates(rootQ, rootP);
             } else {
                 parent[rootQ] = rootP;
                 size[rootP] += size[rootQ];
                 largest[rootP] = Math.max(largest[rootP], largest[rootQ]);
+                mergeAggregates(rootP, rootQ);
             }
             count--;
         }
         
+        /**
+         * Registers a per-component aggregate over long values, e.g. 
+         * `Long::sum` for totals or `Math::min` / `Math::max` for extremes. 
+         * The member count of each component is available as componentSize().
+         * @param combiner Associative and commutative function merging two component values.
+         * @param values Initial value of every element; copied.
+         * @return Handle to pass to aggregate().
+         * @throws IllegalArgumentException if values does not have one entry per element.
+         * @throws IllegalStateException if a union has happened already.
+         */
+        public int addAggregate(LongBinaryOperator combiner, long[] values) {
+            validateAggregate(values.length);
+            int handle = longAggregates.length;
+            longAggregates = Arrays.copyOf(longAggregates, handle + 1);
+            longCombiners = Arrays.copyOf(longCombiners, handle + 1);
+            longAggregates[handle] = values.clone();
+            longCombiners[handle] = combiner;
+            return handle;
+        }
+        
+        /**
+         * Registers a per-component aggregate over double values.
+         * @param combiner Associative and commutative function merging two component values.
+         * @param values Initial value of every element; copied.
+         * @return Handle to pass to doubleAggregate().
+         * @throws IllegalArgumentException if values does not have one entry per element.
+         * @throws IllegalStateException if a union has happened already.
+         */
+        public int addAggregate(DoubleBinaryOperator combiner, double[] values) {
+            validateAggregate(values.length);
+            int handle = doubleAggregates.length;
+            doubleAggregates = Arrays.copyOf(doubleAggregates, handle + 1);
+            doubleCombiners = Arrays.copyOf(doubleCombiners, handle + 1);
+            doubleAggregates[handle] = values.clone();
+            doubleCombiners[handle] = combiner;
+            return handle;
+        }
+        
+        /**
+         * Returns a long aggregate of the connected component containing element p.
+         * @param handle Handle returned by addAggregate(LongBinaryOperator, long[]).
+         * @param p The element whose component is queried.
+         * @return The aggregated value of the component.
+         * @throws IllegalArgumentException if handle was not returned by addAggregate(LongBinaryOperator, long[]).
+         */
+        public long aggregate(int handle, int p) {
+            validateHandle(handle, longAggregates.length);
+            return longAggregates[handle][find(p)];
+        }
+        
+        /**
+         * Returns a double aggregate of the connected component containing element p.
+         * @param handle Handle returned by addAggregate(DoubleBinaryOperator, double[]).
+         * @param p The element whose component is queried.
+         * @return The aggregated value of the component.
+         * @throws IllegalArgumentException if handle was not returned by addAggregate(DoubleBinaryOperator, double[]).
+         */
+        public double doubleAggregate(int handle, int p) {
+            validateHandle(handle, doubleAggregates.length);
+            return doubleAggregates[handle][find(p)];
+        }
+        
+        /**
+         * Returns the number of elements in the connected component containing element p.
+         * @param p The element whose component is queried.
+         * @return The size of the component.
+         */
+        public int componentSize(int p) {
+            return size[find(p)];
+        }
+        
+        /**
+         * Checks that a new aggregate has one value per element and that no union 
+         * has merged components yet, which would leave the new values unmerged.
+         */
+        private void validateAggregate(int values) {
+            if (values != parent.length) {
+                throw new IllegalArgumentException("expected " + parent.length + " values but got " + values);
+            }
+            if (count != parent.length) {
+                throw new IllegalStateException("aggregates must be registered before the first union");
+            }
+        }
+        
+        private void validateHandle(int handle, int handles) {
+            if (handle < 0 || handle >= handles) {
+                throw new IllegalArgumentException("unknown aggregate handle " + handle);
+            }
+        }
+        
+        /**
+         * Merges all registered aggregates of root child into root.
+         */
+        private void mergeAggregates(int root, int child) {
+            for (int a = 0; a < longAggregates.length; a++) {
+                long[] values = longAggregates[a];
+                values[root] = longCombiners[a].applyAsLong(values[root], values[child]);
+            }
+            for (int a = 0; a < doubleAggregates.length; a++) {
+                double[] values = doubleAggregates[a];
+                values[root] = doubleCombiners[a].applyAsDouble(values[root], values[child]);
+            }
+        }
+        
         /**
          * Checks if elements p and q are in the same set (connected).
          * @param p The first element.
@@ -136,6 +307,155 @@ public class SocialNetworkConnection {
         }
     }
 
+    // Union-Find that grows one element at a time, stored in fixed-size chunks.
+    private class GrowableUnionFind {
+        private static final int CHUNK_BITS = 16;              // 65536 elements per chunk
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+        private int[][] parent;  // parent[c][i] is the parent of element (c << CHUNK_BITS) + i
+        private int[][] size;    // Size of each set, valid for roots
+        private int[][] largest; // Largest element in each connected component, valid for roots
+        private int elements;    // Number of elements created so far
+        private int count;       // Number of disjoint sets
+
+        /**
+         * Constructor to initialize an empty Union-Find data structure.
+         */
+        public GrowableUnionFind() {
+            parent = new int[1][];
+            size = new int[1][];
+            largest = new int[1][];
+        }
+
+        /**
+         * Adds a new element in its own set. Only the small chunk directory is
+         * ever copied when the structure grows, never the elements themselves.
+         * @return The id of the new element (ids are handed out as 0, 1, 2, ...).
+         */
+        public int makeSet() {
+            if (elements == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Union-Find is full");
+            }
+            int id = elements;
+            int chunk = id >>> CHUNK_BITS;
+            if (chunk == parent.length) {
+                parent = Arrays.copyOf(parent, 2 * chunk);
+                size = Arrays.copyOf(size, 2 * chunk);
+                largest = Arrays.copyOf(largest, 2 * chunk);
+            }
+            if (parent[chunk] == null) {
+                parent[chunk] = new int[CHUNK_SIZE];
+                size[chunk] = new int[CHUNK_SIZE];
+                largest[chunk] = new int[CHUNK_SIZE];
+            }
+            int offset = id & CHUNK_MASK;
+            parent[chunk][offset] = id;
+            size[chunk][offset] = 1;
+            largest[chunk][offset] = id;
+            elements++;
+            count++;
+            return id;
+        }
+
+        /**
+         * Finds the root of the set containing element p with path compression.
+         * @param p The element to find the root for.
+         * @return The root of the set containing element p.
+         */
+        public int find(int p) {
+            validate(p);
+            int next = parentOf(p);
+            while (p != next) {
+                int grand = parentOf(next);
+                parent[p >>> CHUNK_BITS][p & CHUNK_MASK] = grand;  // Path compression
+                p = grand;
+                next = parentOf(p);
+            }
+            return p;
+        }
+
+        /**
+         * Finds the largest element in the connected component containing element p.
+         * @param p The element to find the largest in its component.
+         * @return The largest element in the connected component of element p.
+         */
+        public int findLargest(int p) {
+            int root = find(p);
+            return largest[root >>> CHUNK_BITS][root & CHUNK_MASK];
+        }
+
+        /**
+         * Merges the sets containing elements p and q.
+         * @param p The first element.
+         * @param q The second element.
+         * @return True if two different sets were merged, false otherwise.
+         */
+        public boolean union(int p, int q) {
+            int rootP = find(p);
+            int rootQ = find(q);
+
+            if (rootP == rootQ) return false;  // They are already in the same set
+
+            // Union by size: attach smaller tree to larger one
+            int sizeP = size[rootP >>> CHUNK_BITS][rootP & CHUNK_MASK];
+            int sizeQ = size[rootQ >>> CHUNK_BITS][rootQ & CHUNK_MASK];
+            int largestP = largest[rootP >>> CHUNK_BITS][rootP & CHUNK_MASK];
+            int largestQ = largest[rootQ >>> CHUNK_BITS][rootQ & CHUNK_MASK];
+            if (sizeP < sizeQ) {
+                int tmp = rootP;
+                rootP = rootQ;
+                rootQ = tmp;
+            }
+            parent[rootQ >>> CHUNK_BITS][rootQ & CHUNK_MASK] = rootP;
+            size[rootP >>> CHUNK_BITS][rootP & CHUNK_MASK] = sizeP + sizeQ;
+            largest[rootP >>> CHUNK_BITS][rootP & CHUNK_MASK] = Math.max(largestP, largestQ);
+            count--;
+            return true;
+        }
+
+        /**
+         * Checks if elements p and q are in the same set (connected).
+         * @param p The first element.
+         * @param q The second element.
+         * @return True if p and q are connected, false otherwise.
+         */
+        public boolean connected(int p, int q) {
+            return find(p) == find(q);
+        }
+
+        /**
+         * Returns the number of disjoint sets.
+         * @return The number of disjoint sets.
+         */
+        public int count() {
+            return count;
+        }
+
+        /**
+         * Returns the number of elements created so far.
+         * @return The number of elements.
+         */
+        public int size() {
+            return elements;
+        }
+
+        private int parentOf(int p) {
+            return parent[p >>> CHUNK_BITS][p & CHUNK_MASK];
+        }
+
+        /**
+         * Validates if element p has been created.
+         * @param p The element to validate.
+         * @throws IllegalArgumentException if p is out of range.
+         */
+        private void validate(int p) {
+            if (p < 0 || p >= elements) {
+                throw new IllegalArgumentException("index " + p + " is not between 0 and " + (elements-1));
+            }
+        }
+    }
+
     /**
      * Finds the earliest timestamp at which all members in the social network are 
      * connected, based on friendship logs.
@@ -164,6 +484,513 @@ public class SocialNetworkConnection {
         return -1; // No full connection found
     }
 
+    /**
+     * Cursor over friendship logs in time order, read without allocating per log.
+     */
+    public interface FriendshipLogs {
+        /**
+         * Moves to the next log.
+         * @return True if there was another log, false at the end of the stream.
+         */
+        boolean advance();
+
+        /** @return The timestamp of the current log. */
+        long timestamp();
+
+        /** @return The first member of the current log. */
+        int member1();
+
+        /** @return The second member of the current log. */
+        int member2();
+
+        /**
+         * Returns a cursor over logs held in an array.
+         * @param logs Logs of the form {timestamp, member1, member2}.
+         * @return A cursor over the logs, in array order.
+         */
+        static FriendshipLogs of(int[][] logs) {
+            return new FriendshipLogs() {
+                private int next;
+                private int[] log;
+
+                public boolean advance() {
+                    if (next == logs.length) return false;
+                    log = logs[next++];
+                    return true;
+                }
+
+                public long timestamp() { return log[0]; }
+
+                public int member1() { return log[1]; }
+
+                public int member2() { return log[2]; }
+            };
+        }
+    }
+
+    /**
+     * Finds the earliest timestamp at which all members are connected when the
+     * number of members is not known up front. A member joins the network with
+     * the first log entry that mentions it. Reads the whole stream; use
+     * findEarliestConnection(logs, onConnected) for open-ended streams.
+     * @param logs Friendship logs in time order.
+     * @return The timestamp at which all members seen in the logs became connected,
+     *         or -1 if they are not connected at the end of the stream.
+     */
+    public static long findEarliestConnection(FriendshipLogs logs) {
+        return findEarliestConnection(logs, timestamp -> false);
+    }
+
+    /**
+     * Streams friendship logs while the set of members is still growing. Each
+     * time a log connects all members seen so far, onConnected is called with
+     * its timestamp and decides whether to stop reading; a member joining later
+     * splits the network again until another log connects it.
+     *
+     * Member ids may be sparse: they are mapped to dense union-find elements as
+     * they appear, so memory grows with the number of distinct members, not
+     * with the largest id.
+     * @param logs Friendship logs in time order.
+     * @param onConnected Called with the timestamp whenever all members seen so far
+     *                    became connected; returns true to stop reading.
+     * @return The timestamp at which all members seen so far became connected,
+     *         or -1 if they are not connected when reading stops.
+     */
+    public static long findEarliestConnection(FriendshipLogs logs, LongPredicate onConnected) {
+        GrowableUnionFind uf = new SocialNetworkConnection().new GrowableUnionFind();
+        IdMap members = new IdMap();
+        long connectedSince = -1;
+
+        while (logs.advance()) {
+            int elements = uf.size();
+            int member1 = members.elementOf(logs.member1(), uf);
+            int member2 = members.elementOf(logs.member2(), uf);
+            if (uf.size() != elements) {
+                connectedSince = -1;  // The network now includes a new member
+            }
+            uf.union(member1, member2);
+
+            if (uf.count() == 1 && connectedSince == -1) {
+                connectedSince = logs.timestamp();
+                if (onConnected.test(connectedSince)) {
+                    break;
+                }
+            }
+        }
+
+        return connectedSince;
+    }
+
+    // Maps member ids to dense GrowableUnionFind elements (open addressing, linear probing).
+    private static final class IdMap {
+        private static final int FREE = -1;
+
+        private int[] ids = new int[16];
+        private int[] elements = new int[16];
+        private int shift = Integer.SIZE - 4;  // 32 - log2(ids.length)
+        private int size;
+
+        IdMap() {
+            Arrays.fill(elements, FREE);
+        }
+
+        /**
+         * Returns the element of a member id, creating it with makeSet() on first sight.
+         */
+        int elementOf(int id, GrowableUnionFind uf) {
+            int slot = slot(id);
+            if (elements[slot] == FREE) {
+                if (2 * (size + 1) > ids.length) {
+                    rehash();
+                    slot = slot(id);
+                }
+                ids[slot] = id;
+                elements[slot] = uf.makeSet();
+                size++;
+            }
+            return elements[slot];
+        }
+
+        private int slot(int id) {
+            int mask = ids.length - 1;
+            int slot = home(id);
+            while (elements[slot] != FREE && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        // Fibonacci hashing: the top bits of the product, which depend on all bits of the id.
+        private int home(int id) {
+            return (id * 0x9E3779B9) >>> shift;
+        }
+
+        private void rehash() {
+            int[] oldIds = ids;
+            int[] oldElements = elements;
+            ids = new int[2 * oldIds.length];
+            elements = new int[2 * oldIds.length];
+            shift--;
+            Arrays.fill(elements, FREE);
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldElements[i] != FREE) {
+                    int slot = slot(oldIds[i]);
+                    ids[slot] = oldIds[i];
+                    elements[slot] = oldElements[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the earliest timestamp at which all members are connected, reading 
+     * unsorted friendship logs from text files that may not fit in memory.
+     * 
+     * Each non-empty line holds a timestamp and two member indices separated by 
+     * whitespace. The logs are sorted with an external merge sort: runs of at 
+     * most maxLogsInMemory logs are sorted in memory and spilled to temporary 
+     * files, then the runs are merged lazily and fed into the union-find. The 
+     * merge stops as soon as all members are connected, so usually only a 
+     * prefix of the sorted logs is ever read back. At most MAX_MERGE_RUNS runs 
+     * are open at once, and fewer when their buffers would exceed the memory 
+     * budget; more runs are first merged into longer ones in extra passes.
+     * @param n The number of members in the network.
+     * @param logFiles The log files, in any order.
+     * @param maxLogsInMemory Maximum number of logs buffered at once (16 bytes each).
+     * @return The earliest timestamp at which all members are connected, or -1 
+     *         if it's not possible.
+     * @throws IOException if a log file cannot be read or a run cannot be spilled.
+     * @throws IllegalArgumentException if maxLogsInMemory is not positive or a line is malformed.
+     */
+    public static long findEarliestConnection(int n, List<Path> logFiles, int maxLogsInMemory) throws IOException {
+        if (maxLogsInMemory <= 0) {
+            throw new IllegalArgumentException("maxLogsInMemory must be positive");
+        }
+        long[] timestamps = new long[maxLogsInMemory];
+        int[] members1 = new int[maxLogsInMemory];
+        int[] members2 = new int[maxLogsInMemory];
+        int buffered = 0;
+        
+        Path spillDir = null;
+        ByteBuffer spillBuffer = null;
+        List<Path> runs = new ArrayList<>();
+        List<LogRun> readers = new ArrayList<>();
+        try {
+            // Phase 1: read all files, spilling a sorted run whenever the buffer is full.
+            for (Path file : logFiles) {
+                try (BufferedReader reader = Files.newBufferedReader(file)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int[] pos = {0};
+                        if (!skipBlanks(line, pos)) {
+                            continue;
+                        }
+                        if (buffered == maxLogsInMemory) {
+                            if (spillDir == null) {
+                                spillDir = Files.createTempDirectory("social-logs");
+                                spillBuffer = ByteBuffer.allocateDirect(LogRun.bufferBytes(maxLogsInMemory, 1));
+                            }
+                            spillRun(spillDir, spillBuffer, runs, timestamps, members1, members2, buffered);
+                            buffered = 0;
+                        }
+                        timestamps[buffered] = parseLong(line, pos);
+                        members1[buffered] = parseMember(line, pos);
+                        members2[buffered] = parseMember(line, pos);
+                        buffered++;
+                    }
+                }
+            }
+            
+            UnionFind uf = new SocialNetworkConnection().new UnionFind(n);
+            if (runs.isEmpty()) {
+                // Everything fit in memory; no need to touch the disk.
+                sortByTimestamp(timestamps, members1, members2, 0, buffered - 1);
+                for (int i = 0; i < buffered; i++) {
+                    uf.union(members1[i], members2[i]);
+                    if (uf.count() == 1) {
+                        return timestamps[i];
+                    }
+                }
+                return -1;
+            }
+            if (buffered > 0) {
+                spillRun(spillDir, spillBuffer, runs, timestamps, members1, members2, buffered);
+            }
+            timestamps = null;  // Release the sort and spill buffers before merging
+            members1 = null;
+            members2 = null;
+            spillBuffer = null;
+            
+            // Phase 2: merge runs fanIn at a time into longer runs until fanIn or fewer are left,
+            // splitting the memory budget between the run buffers and the output buffer.
+            int fanIn = LogRun.fanIn(maxLogsInMemory);
+            while (runs.size() > fanIn) {
+                mergeRuns(spillDir, runs, fanIn, LogRun.bufferBytes(maxLogsInMemory, fanIn + 1));
+            }
+            
+            // Phase 3: k-way merge of the remaining runs into the union-find.
+            PriorityQueue<LogRun> merge = openRuns(runs, LogRun.bufferBytes(maxLogsInMemory, runs.size()), readers);
+            while (!merge.isEmpty()) {
+                LogRun run = merge.poll();
+                uf.union(run.member1, run.member2);
+                if (uf.count() == 1) {
+                    return run.timestamp;
+                }
+                if (run.advance()) {
+                    merge.add(run);
+                }
+            }
+            return -1;
+        } finally {
+            for (LogRun reader : readers) {
+                reader.close();
+            }
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            if (spillDir != null) {
+                Files.deleteIfExists(spillDir);
+            }
+        }
+    }
+
+    /**
+     * Opens the runs and returns those that are not empty, ordered by their first log. 
+     * The readers are added to readers as they are opened, so the caller can close them.
+     */
+    private static PriorityQueue<LogRun> openRuns(List<Path> runs, int bufferBytes, List<LogRun> readers) 
+            throws IOException {
+        PriorityQueue<LogRun> merge = new PriorityQueue<>(runs.size(), Comparator.comparingLong(run -> run.timestamp));
+        for (Path run : runs) {
+            LogRun reader = new LogRun(run, bufferBytes);
+            readers.add(reader);
+            if (reader.advance()) {
+                merge.add(reader);
+            }
+        }
+        return merge;
+    }
+
+    /**
+     * Merges the first count runs into a new run at the end of runs, then deletes them. 
+     * The new run is added to runs before anything is written so that it is deleted 
+     * even if merging fails.
+     */
+    private static void mergeRuns(Path dir, List<Path> runs, int count, int bufferBytes) throws IOException {
+        List<Path> group = new ArrayList<>(runs.subList(0, count));
+        Path merged = Files.createTempFile(dir, "run", ".bin");
+        runs.add(merged);
+        List<LogRun> readers = new ArrayList<>(count);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferBytes);
+        try (FileChannel channel = FileChannel.open(merged, StandardOpenOption.WRITE)) {
+            PriorityQueue<LogRun> merge = openRuns(group, bufferBytes, readers);
+            while (!merge.isEmpty()) {
+                LogRun run = merge.poll();
+                if (buffer.remaining() < LogRun.RECORD_BYTES) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putLong(run.timestamp).putInt(run.member1).putInt(run.member2);
+                if (run.advance()) {
+                    merge.add(run);
+                }
+            }
+            writeFully(channel, buffer);
+        } finally {
+            for (LogRun reader : readers) {
+                reader.close();
+            }
+        }
+        for (Path run : group) {
+            Files.delete(run);
+        }
+        runs.subList(0, count).clear();
+    }
+
+    // Sequential reader over one sorted run file produced by spillRun() or mergeRuns().
+    private static final class LogRun implements AutoCloseable {
+        private static final int RECORD_BYTES = Long.BYTES + 2 * Integer.BYTES;
+        private static final int MIN_BUFFER_BYTES = 256 * RECORD_BYTES;  // Smallest buffer worth another open run
+        private static final int MAX_BUFFER_BYTES = 1 << 20;
+        private static final int MAX_MERGE_RUNS = 256;
+
+        /**
+         * Returns how many runs to merge at once: as many as the budget of maxLogsInMemory 
+         * logs gives MIN_BUFFER_BYTES each, plus an output buffer, but at least 2 and at 
+         * most MAX_MERGE_RUNS.
+         */
+        static int fanIn(int maxLogsInMemory) {
+            long runs = (long) maxLogsInMemory * RECORD_BYTES / MIN_BUFFER_BYTES - 1;
+            return (int) Math.max(2, Math.min(MAX_MERGE_RUNS, runs));
+        }
+
+        /**
+         * Returns the size of each of buffers buffers sharing the budget of maxLogsInMemory 
+         * logs, a multiple of RECORD_BYTES between one log and MAX_BUFFER_BYTES.
+         */
+        static int bufferBytes(int maxLogsInMemory, int buffers) {
+            long bytes = Math.min(MAX_BUFFER_BYTES, (long) maxLogsInMemory * RECORD_BYTES / buffers);
+            return (int) Math.max(RECORD_BYTES, bytes - bytes % RECORD_BYTES);
+        }
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long timestamp;  // Current log, valid after advance() returned true
+        private int member1;
+        private int member2;
+
+        LogRun(Path file, int bufferBytes) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer = ByteBuffer.allocateDirect(bufferBytes);
+            buffer.limit(0);
+        }
+
+        /**
+         * Moves to the next log of the run.
+         * @return True if there was another log, false at the end of the run.
+         */
+        boolean advance() throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                buffer.compact();
+                while (buffer.position() < RECORD_BYTES && channel.read(buffer) > 0) {
+                    // Keep reading until at least one full record is available.
+                }
+                buffer.flip();
+                if (buffer.remaining() < RECORD_BYTES) {
+                    return false;
+                }
+            }
+            timestamp = buffer.getLong();
+            member1 = buffer.getInt();
+            member2 = buffer.getInt();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Sorts the first count buffered logs by timestamp and writes them to a new run 
+     * file, which is added to runs before anything is written so that it is deleted 
+     * even if writing fails.
+     */
+    private static void spillRun(Path dir, ByteBuffer buffer, List<Path> runs, 
+            long[] timestamps, int[] members1, int[] members2, int count) throws IOException {
+        sortByTimestamp(timestamps, members1, members2, 0, count - 1);
+        Path run = Files.createTempFile(dir, "run", ".bin");
+        runs.add(run);
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < LogRun.RECORD_BYTES) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putLong(timestamps[i]).putInt(members1[i]).putInt(members2[i]);
+            }
+            writeFully(channel, buffer);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Sorts the logs in [lo, hi] by timestamp, moving the member columns along 
+     * (quicksort with median-of-three pivot, insertion sort for small ranges).
+     */
+    private static void sortByTimestamp(long[] timestamps, int[] members1, int[] members2, int lo, int hi) {
+        while (hi - lo > 16) {
+            int mid = lo + (hi - lo) / 2;
+            if (timestamps[mid] < timestamps[lo]) swapLogs(timestamps, members1, members2, mid, lo);
+            if (timestamps[hi] < timestamps[lo]) swapLogs(timestamps, members1, members2, hi, lo);
+            if (timestamps[hi] < timestamps[mid]) swapLogs(timestamps, members1, members2, hi, mid);
+            long pivot = timestamps[mid];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (timestamps[i] < pivot) i++;
+                while (timestamps[j] > pivot) j--;
+                if (i <= j) {
+                    swapLogs(timestamps, members1, members2, i++, j--);
+                }
+            }
+            // Recurse into the smaller half, loop on the larger one to bound the stack depth.
+            if (j - lo < hi - i) {
+                sortByTimestamp(timestamps, members1, members2, lo, j);
+                lo = i;
+            } else {
+                sortByTimestamp(timestamps, members1, members2, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && timestamps[j] < timestamps[j - 1]; j--) {
+                swapLogs(timestamps, members1, members2, j, j - 1);
+            }
+        }
+    }
+
+    private static void swapLogs(long[] timestamps, int[] members1, int[] members2, int i, int j) {
+        long t = timestamps[i];
+        timestamps[i] = timestamps[j];
+        timestamps[j] = t;
+        int m = members1[i];
+        members1[i] = members1[j];
+        members1[j] = m;
+        m = members2[i];
+        members2[i] = members2[j];
+        members2[j] = m;
+    }
+
+    /**
+     * Advances pos[0] past whitespace.
+     * @return True if a non-whitespace character follows.
+     */
+    private static boolean skipBlanks(String line, int[] pos) {
+        while (pos[0] < line.length() && Character.isWhitespace(line.charAt(pos[0]))) {
+            pos[0]++;
+        }
+        return pos[0] < line.length();
+    }
+
+    /**
+     * Parses the next whitespace-separated integer of a log line starting at pos[0].
+     * @throws IllegalArgumentException if there is no integer at that position.
+     */
+    private static long parseLong(String line, int[] pos) {
+        if (!skipBlanks(line, pos)) {
+            throw new IllegalArgumentException("Malformed log line: " + line);
+        }
+        int start = pos[0];
+        while (pos[0] < line.length() && !Character.isWhitespace(line.charAt(pos[0]))) {
+            pos[0]++;
+        }
+        try {
+            return Long.parseLong(line, start, pos[0], 10);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed log line: " + line, e);
+        }
+    }
+
+    /**
+     * Parses the next member index of a log line starting at pos[0].
+     * @throws IllegalArgumentException if there is no integer at that position or it does not fit in an int.
+     */
+    private static int parseMember(String line, int[] pos) {
+        try {
+            return Math.toIntExact(parseLong(line, pos));
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Member index out of range: " + line, e);
+        }
+    }
+
     // Test methods to validate the functionality of the implementation.
     
     @Test
@@ -208,6 +1035,66 @@ public class SocialNetworkConnection {
         assertEquals(4, uf.findLargest(4));
     }
 
+    @Test
+    public void testComponentAggregates() {
+        UnionFind uf = new SocialNetworkConnection().new UnionFind(5);
+        int followers = uf.addAggregate(Long::sum, new long[] {10, 20, 30, 40, 50});
+        int oldest = uf.addAggregate(Math::min, new long[] {1990, 1985, 2001, 1979, 1995});
+        int score = uf.addAggregate(Math::max, new double[] {0.5, 2.5, 1.0, 0.25, 3.0});
+        uf.union(0, 1);
+        uf.union(1, 4);
+        uf.union(2, 3);
+        
+        assertEquals(80, uf.aggregate(followers, 0));
+        assertEquals(70, uf.aggregate(followers, 3));
+        assertEquals(1985, uf.aggregate(oldest, 4));
+        assertEquals(1979, uf.aggregate(oldest, 2));
+        assertEquals(3.0, uf.doubleAggregate(score, 1), 0.0);
+        assertEquals(1.0, uf.doubleAggregate(score, 3), 0.0);
+        
+        assertEquals(3, uf.componentSize(4));
+        assertEquals(2, uf.componentSize(2));
+        
+        uf.union(3, 4);
+        assertEquals(150, uf.aggregate(followers, 2));
+        assertEquals(4, uf.findLargest(2));
+        assertEquals(5, uf.componentSize(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAggregateAfterUnion() {
+        UnionFind uf = new SocialNetworkConnection().new UnionFind(3);
+        uf.union(0, 1);
+        uf.addAggregate(Long::sum, new long[] {1, 2, 3});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidAggregateHandle() {
+        UnionFind uf = new SocialNetworkConnection().new UnionFind(3);
+        int handle = uf.addAggregate(Long::sum, new long[] {1, 2, 3});
+        uf.aggregate(handle + 1, 0);
+    }
+
+    @Test
+    public void testInstrumentation() {
+        UnionFind uf = new SocialNetworkConnection().new UnionFind(8);
+        for (int i = 1; i < 8; i++) {
+            uf.union(0, i);
+        }
+        if (!UnionFindProbe.ENABLED) {
+            try {
+                uf.stats();
+                fail("stats() must not be available without instrumentation");
+            } catch (IllegalStateException expected) {
+                return;
+            }
+        }
+        UnionFindProbe.Snapshot stats = uf.stats();
+        assertEquals(7, stats.unions());
+        assertEquals(14, stats.finds());
+        assertArrayEquals(new long[] {7, 6, 5, 4, 3, 2, 1}, stats.componentCounts());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testInvalidIndex() {
         UnionFind uf = new SocialNetworkConnection().new UnionFind(5);
@@ -227,9 +1114,152 @@ public class SocialNetworkConnection {
         assertEquals(5, findEarliestConnection(n, logs));
     }
 
+    @Test
+    public void testGrowableUnionFind() {
+        GrowableUnionFind uf = new SocialNetworkConnection().new GrowableUnionFind();
+        int n = 3 * 65536 + 5;  // Spans several chunks
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, uf.makeSet());
+        }
+        for (int i = 1; i < n; i += 2) {
+            uf.union(i - 1, i);
+        }
+        assertEquals((n + 1) / 2, uf.count());
+        uf.union(0, n - 1);
+        assertTrue(uf.connected(1, n - 1));
+        assertEquals(n - 1, uf.findLargest(0));
+        assertEquals(5, uf.findLargest(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGrowableInvalidIndex() {
+        GrowableUnionFind uf = new SocialNetworkConnection().new GrowableUnionFind();
+        uf.makeSet();
+        uf.find(1);
+    }
+
+    @Test
+    public void testStreamingConnection() {
+        int[][] logs = {
+            {1, 0, 1},
+            {2, 1, 2},
+            {3, 3, 4},
+            {4, 4, 5},
+            {5, 2, 3}
+        };
+        assertEquals(5, findEarliestConnection(FriendshipLogs.of(logs)));
+        assertEquals(2, findEarliestConnection(FriendshipLogs.of(new int[][] {{1, 0, 1}, {2, 1, 2}})));
+        assertEquals(-1, findEarliestConnection(FriendshipLogs.of(new int[][] {{1, 0, 1}, {2, 2, 3}})));
+        // Member 7 joins after the others were connected.
+        assertEquals(4, findEarliestConnection(FriendshipLogs.of(new int[][] {{1, 0, 1}, {2, 1, 2}, {3, 7, 8}, {4, 8, 0}})));
+        // Sparse ids do not allocate the range up to the largest id.
+        assertEquals(3, findEarliestConnection(FriendshipLogs.of(new int[][] {{1, 2000000000, 5}, {2, 7, 1999999999}, {3, 5, 7}})));
+    }
+
+    @Test
+    public void testStreamingStridedIds() {
+        // Ids that differ only in their high bits must still spread over the table.
+        int n = 1 << 16;
+        IdMap map = new IdMap();
+        GrowableUnionFind uf = new SocialNetworkConnection().new GrowableUnionFind();
+        BitSet homes = new BitSet();
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, map.elementOf(i << 16, uf));
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, map.elementOf(i << 16, uf));
+            homes.set(map.home(i << 16));
+        }
+        assertTrue(homes.cardinality() > n / 2);
+
+        int[][] logs = new int[n - 1][];
+        for (int i = 1; i < n; i++) {
+            logs[i - 1] = new int[] {i, (i - 1) << 16, i << 16};
+        }
+        assertEquals(n - 1, findEarliestConnection(FriendshipLogs.of(logs)));
+    }
+
+    @Test
+    public void testStreamingConnectionStopsEarly() {
+        int[][] logs = {{1, 0, 1}, {2, 2, 3}, {3, 1, 2}, {4, 4, 5}, {5, 3, 4}};
+        List<Long> connections = new ArrayList<>();
+        assertEquals(5, findEarliestConnection(FriendshipLogs.of(logs), timestamp -> !connections.add(timestamp)));
+        assertEquals(List.of(1L, 3L, 5L), connections);
+
+        // An endless stream: stop at the first time 0..9 are all connected.
+        FriendshipLogs endless = new FriendshipLogs() {
+            private int t;
+            public boolean advance() { t++; return true; }
+            public long timestamp() { return t; }
+            public int member1() { return Math.min(t, 9) - 1; }
+            public int member2() { return Math.min(t, 9); }
+        };
+        assertEquals(9, findEarliestConnection(endless, timestamp -> timestamp >= 9));
+    }
+
+    @Test
+    public void testUnsortedLogFiles() throws IOException {
+        Path dir = Files.createTempDirectory("social-test");
+        Path first = Files.write(dir.resolve("a.log"), List.of("5 2 3", "", "1 0 1", "9 0 5"));
+        Path second = Files.write(dir.resolve("b.log"), List.of("4 4 5", "  3 3 4", "2 1 2", "7 0 3"));
+        try {
+            for (int maxLogsInMemory : new int[] {1, 2, 3, 100}) {
+                assertEquals(5, findEarliestConnection(6, List.of(first, second), maxLogsInMemory));
+            }
+            assertEquals(-1, findEarliestConnection(7, List.of(first, second), 2));
+            
+            Path overflow = Files.write(dir.resolve("c.log"), List.of("1 0 4294967297"));
+            try {
+                findEarliestConnection(2, List.of(overflow), 2);
+                fail("member index beyond int range must be rejected");
+            } catch (IllegalArgumentException expected) {
+                // 4294967297 would otherwise be truncated to member 1
+            } finally {
+                Files.delete(overflow);
+            }
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testMultiPassMerge() throws IOException {
+        // 3000 logs in three files; a chain over members 0..1000 plus self-loops, in shuffled time order.
+        Path dir = Files.createTempDirectory("social-test");
+        List<Path> files = new ArrayList<>();
+        long expected = 0;
+        try {
+            for (int f = 0; f < 3; f++) {
+                List<String> lines = new ArrayList<>();
+                for (int i = f * 1000; i < (f + 1) * 1000; i++) {
+                    long timestamp = i * 1009L % 3000 + 1;
+                    if (i < 1000) {
+                        lines.add(timestamp + " " + i + " " + (i + 1));
+                        expected = Math.max(expected, timestamp);
+                    } else {
+                        lines.add(timestamp + " " + i % 1001 + " " + i % 1001);
+                    }
+                }
+                files.add(Files.write(dir.resolve(f + ".log"), lines));
+            }
+            // 1500 runs of 2 logs are merged 2 at a time, 12 runs of 256 logs 2 at a time 
+            // as well, and 2 runs of 2000 logs directly.
+            for (int maxLogsInMemory : new int[] {2, 256, 2000, 3000}) {
+                assertEquals(expected, findEarliestConnection(1001, files, maxLogsInMemory));
+            }
+            assertEquals(-1, findEarliestConnection(1002, files, 2));
+        } finally {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+            Files.delete(dir);
+        }
+    }
+
     public static void main(String[] args) {
         // Run all tests
         org.junit.runner.JUnitCore.main("SocialNetworkConnection");
     }
 }
-```
\ No newline at end of file
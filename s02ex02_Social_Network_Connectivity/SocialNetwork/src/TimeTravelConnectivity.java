@@ -0,0 +1,379 @@
+import java.util.Arrays;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This class answers offline "were a and b connected at time t?" queries over
+ * a social network whose friendships are formed and may later expire.
+ *
+ * Each friendship is an edge that is active during the half-open time interval
+ * [start, end). All queries are known up front, so instead of rebuilding a
+ * union-find per query the whole batch is answered in one divide-and-conquer
+ * pass over time:
+ * - The distinct query times are sorted and form the leaves of a segment tree.
+ * - Every edge is stored in the O(log q) segment tree nodes that exactly cover
+ *   the query times during which it is active.
+ * - A depth-first walk of the tree unions the edges of a node on the way down
+ *   and undoes them on the way up, so at every leaf the union-find holds
+ *   exactly the edges active at that leaf's time.
+ *
+ * Undoing unions is only possible without path compression, so `RollbackUnionFind`
+ * uses union by size alone, which still keeps `find()` at O(log n).
+ *
+ * Time Complexity: O((m log q + q) log n) for m edges and q queries.
+ * Space Complexity: O(n + m log q + q).
+ */
+public class TimeTravelConnectivity {
+
+    // Union-Find with union by size and no path compression, so unions can be undone.
+    static final class RollbackUnionFind {
+        private final int[] parent;  // Stores the parent of each element
+        private final int[] size;    // Stores the size of each set
+        private final int[] history; // Roots that were linked below another root, most recent last
+        private int unions;          // Number of entries in history
+        private int count;           // Number of disjoint sets
+
+        /**
+         * Constructor to initialize the Union-Find data structure.
+         * @param n The number of elements in the set.
+         */
+        RollbackUnionFind(int n) {
+            count = n;
+            parent = new int[n];
+            size = new int[n];
+            history = new int[Math.max(0, n - 1)];  // At most n - 1 unions can be in effect
+            for (int i = 0; i < n; i++) {
+                parent[i] = i;
+                size[i] = 1;
+            }
+        }
+
+        /**
+         * Finds the root of the set containing element p (no path compression).
+         * @param p The element to find the root for.
+         * @return The root of the set containing element p.
+         */
+        int find(int p) {
+            validate(p);
+            while (p != parent[p]) {
+                p = parent[p];
+            }
+            return p;
+        }
+
+        /**
+         * Merges the sets containing elements p and q, attaching the smaller tree
+         * to the larger one.
+         * @param p The first element.
+         * @param q The second element.
+         * @return True if two different sets were merged, false otherwise.
+         */
+        boolean union(int p, int q) {
+            int rootP = find(p);
+            int rootQ = find(q);
+
+            if (rootP == rootQ) return false;  // They are already in the same set
+
+            if (size[rootP] < size[rootQ]) {
+                int tmp = rootP;
+                rootP = rootQ;
+                rootQ = tmp;
+            }
+            parent[rootQ] = rootP;
+            size[rootP] += size[rootQ];
+            history[unions++] = rootQ;
+            count--;
+            return true;
+        }
+
+        /**
+         * Checks if elements p and q are in the same set (connected).
+         * @param p The first element.
+         * @param q The second element.
+         * @return True if p and q are connected, false otherwise.
+         */
+        boolean connected(int p, int q) {
+            return find(p) == find(q);
+        }
+
+        /**
+         * Returns the number of disjoint sets.
+         * @return The number of disjoint sets.
+         */
+        int count() {
+            return count;
+        }
+
+        /**
+         * Returns a checkpoint that rollback() can later return to.
+         * @return The number of unions currently in effect.
+         */
+        int checkpoint() {
+            return unions;
+        }
+
+        /**
+         * Undoes all unions made after the given checkpoint, most recent first.
+         * @param checkpoint A value previously returned by checkpoint().
+         */
+        void rollback(int checkpoint) {
+            while (unions > checkpoint) {
+                int child = history[--unions];
+                int root = parent[child];
+                size[root] -= size[child];
+                parent[child] = child;
+                count++;
+            }
+        }
+
+        /**
+         * Validates if element p is within the valid range.
+         * @param p The element to validate.
+         * @throws IllegalArgumentException if p is out of range.
+         */
+        private void validate(int p) {
+            int n = parent.length;
+            if (p < 0 || p >= n) {
+                throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n-1));
+            }
+        }
+    }
+
+    /**
+     * Answers every query (queryA[i], queryB[i], queryTime[i]): were the two
+     * members connected at that time? Edge i connects edgeA[i] and edgeB[i]
+     * during [edgeStart[i], edgeEnd[i]); use Long.MAX_VALUE for a friendship
+     * that never expires.
+     * @param n The number of members in the network.
+     * @return answers[i] is true iff query i's members were connected at its time.
+     * @throws IllegalArgumentException if the edge or query arrays differ in length
+     *         or a member index is out of range.
+     */
+    public static boolean[] connectedAt(int n, int[] edgeA, int[] edgeB, long[] edgeStart, long[] edgeEnd,
+                                        int[] queryA, int[] queryB, long[] queryTime) {
+        if (edgeB.length != edgeA.length || edgeStart.length != edgeA.length || edgeEnd.length != edgeA.length) {
+            throw new IllegalArgumentException("Edge arrays must have the same length");
+        }
+        if (queryB.length != queryA.length || queryTime.length != queryA.length) {
+            throw new IllegalArgumentException("Query arrays must have the same length");
+        }
+        Solver solver = new Solver(n, edgeA, edgeB, edgeStart, edgeEnd, queryA, queryB, queryTime);
+        if (solver.leaves > 0) {
+            solver.solve(1, 0, solver.leaves);
+        }
+        return solver.answers;
+    }
+
+    // State of one offline pass: the segment tree over query times and the grouped queries.
+    private static final class Solver {
+        private final RollbackUnionFind uf;
+        private final int leaves;          // Number of distinct query times
+        private final int[] nodeHead;      // Segment tree node -> first edge entry, or -1
+        private int[] entryNext;           // Edge entry -> next entry of the same node, or -1
+        private int[] entryEdge;           // Edge entry -> edge index
+        private int entries;
+        private final int[] edgeA;
+        private final int[] edgeB;
+        private final int[] leafQueries;   // Query indices grouped by leaf
+        private final int[] leafStart;     // leafQueries[leafStart[l] .. leafStart[l + 1]) belong to leaf l
+        private final int[] queryA;
+        private final int[] queryB;
+        private final boolean[] answers;
+
+        Solver(int n, int[] edgeA, int[] edgeB, long[] edgeStart, long[] edgeEnd,
+               int[] queryA, int[] queryB, long[] queryTime) {
+            this.uf = new RollbackUnionFind(n);
+            this.edgeA = edgeA;
+            this.edgeB = edgeB;
+            this.queryA = queryA;
+            this.queryB = queryB;
+            this.answers = new boolean[queryA.length];
+            for (int i = 0; i < queryA.length; i++) {
+                uf.validate(queryA[i]);
+                uf.validate(queryB[i]);
+            }
+
+            // Distinct query times become the leaves of the segment tree.
+            long[] times = queryTime.clone();
+            Arrays.sort(times);
+            int distinct = 0;
+            for (int i = 0; i < times.length; i++) {
+                if (i == 0 || times[i] != times[i - 1]) {
+                    times[distinct++] = times[i];
+                }
+            }
+            leaves = distinct;
+
+            // Group queries by leaf (counting sort).
+            leafStart = new int[leaves + 1];
+            int[] queryLeaf = new int[queryA.length];
+            for (int i = 0; i < queryA.length; i++) {
+                queryLeaf[i] = Arrays.binarySearch(times, 0, leaves, queryTime[i]);
+                leafStart[queryLeaf[i] + 1]++;
+            }
+            for (int l = 0; l < leaves; l++) {
+                leafStart[l + 1] += leafStart[l];
+            }
+            int[] next = Arrays.copyOf(leafStart, leaves);
+            leafQueries = new int[queryA.length];
+            for (int i = 0; i < queryA.length; i++) {
+                leafQueries[next[queryLeaf[i]]++] = i;
+            }
+
+            // Store every edge in the nodes covering the leaves during which it is active.
+            nodeHead = new int[4 * Math.max(1, leaves)];
+            Arrays.fill(nodeHead, -1);
+            entryNext = new int[16];
+            entryEdge = new int[16];
+            for (int e = 0; e < edgeA.length; e++) {
+                uf.validate(edgeA[e]);
+                uf.validate(edgeB[e]);
+                int from = lowerBound(times, leaves, edgeStart[e]);
+                int to = lowerBound(times, leaves, edgeEnd[e]);
+                if (from < to) {
+                    insert(1, 0, leaves, from, to, e);
+                }
+            }
+        }
+
+        /**
+         * Adds edge to every maximal segment tree node below node (covering leaves
+         * [lo, hi)) that lies inside the leaf range [from, to).
+         */
+        private void insert(int node, int lo, int hi, int from, int to, int edge) {
+            if (from <= lo && hi <= to) {
+                if (entries == entryNext.length) {
+                    entryNext = Arrays.copyOf(entryNext, 2 * entries);
+                    entryEdge = Arrays.copyOf(entryEdge, 2 * entries);
+                }
+                entryNext[entries] = nodeHead[node];
+                entryEdge[entries] = edge;
+                nodeHead[node] = entries++;
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (from < mid) {
+                insert(2 * node, lo, mid, from, to, edge);
+            }
+            if (to > mid) {
+                insert(2 * node + 1, mid, hi, from, to, edge);
+            }
+        }
+
+        /**
+         * Depth-first walk over the segment tree node covering leaves [lo, hi).
+         */
+        private void solve(int node, int lo, int hi) {
+            int checkpoint = uf.checkpoint();
+            for (int entry = nodeHead[node]; entry != -1; entry = entryNext[entry]) {
+                int e = entryEdge[entry];
+                uf.union(edgeA[e], edgeB[e]);
+            }
+            if (hi - lo == 1) {
+                for (int k = leafStart[lo]; k < leafStart[lo + 1]; k++) {
+                    int query = leafQueries[k];
+                    answers[query] = uf.connected(queryA[query], queryB[query]);
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+                solve(2 * node, lo, mid);
+                solve(2 * node + 1, mid, hi);
+            }
+            uf.rollback(checkpoint);
+        }
+    }
+
+    /**
+     * Returns the index of the first of the sorted times that is >= key.
+     */
+    private static int lowerBound(long[] times, int length, long key) {
+        int lo = 0;
+        int hi = length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Test methods to validate the functionality of the implementation.
+
+    @Test
+    public void testExpiringFriendships() {
+        // 0-1 during [1, 5), 1-2 during [3, 10), 2-3 forever from 4.
+        int[] edgeA = {0, 1, 2};
+        int[] edgeB = {1, 2, 3};
+        long[] edgeStart = {1, 3, 4};
+        long[] edgeEnd = {5, 10, Long.MAX_VALUE};
+        int[] queryA = {0, 0, 0, 0, 1, 0, 3};
+        int[] queryB = {1, 2, 3, 1, 3, 2, 1};
+        long[] queryTime = {0, 3, 4, 5, 9, 2, 10};
+        boolean[] expected = {false, true, true, false, true, false, false};
+        assertArrayEquals(expected, connectedAt(4, edgeA, edgeB, edgeStart, edgeEnd, queryA, queryB, queryTime));
+    }
+
+    @Test
+    public void testMatchesRecomputation() {
+        java.util.Random random = new java.util.Random(42);
+        int n = 30;
+        int m = 200;
+        int q = 300;
+        int[] edgeA = new int[m];
+        int[] edgeB = new int[m];
+        long[] edgeStart = new long[m];
+        long[] edgeEnd = new long[m];
+        for (int e = 0; e < m; e++) {
+            edgeA[e] = random.nextInt(n);
+            edgeB[e] = random.nextInt(n);
+            edgeStart[e] = random.nextInt(100);
+            edgeEnd[e] = edgeStart[e] + random.nextInt(30);
+        }
+        int[] queryA = new int[q];
+        int[] queryB = new int[q];
+        long[] queryTime = new long[q];
+        for (int i = 0; i < q; i++) {
+            queryA[i] = random.nextInt(n);
+            queryB[i] = random.nextInt(n);
+            queryTime[i] = random.nextInt(120);
+        }
+        boolean[] answers = connectedAt(n, edgeA, edgeB, edgeStart, edgeEnd, queryA, queryB, queryTime);
+        for (int i = 0; i < q; i++) {
+            RollbackUnionFind uf = new RollbackUnionFind(n);
+            for (int e = 0; e < m; e++) {
+                if (edgeStart[e] <= queryTime[i] && queryTime[i] < edgeEnd[e]) {
+                    uf.union(edgeA[e], edgeB[e]);
+                }
+            }
+            assertEquals(uf.connected(queryA[i], queryB[i]), answers[i]);
+        }
+    }
+
+    @Test
+    public void testRollback() {
+        RollbackUnionFind uf = new RollbackUnionFind(4);
+        uf.union(0, 1);
+        int checkpoint = uf.checkpoint();
+        uf.union(2, 3);
+        uf.union(1, 3);
+        assertEquals(1, uf.count());
+        uf.rollback(checkpoint);
+        assertEquals(3, uf.count());
+        assertTrue(uf.connected(0, 1));
+        assertFalse(uf.connected(2, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidQuery() {
+        connectedAt(2, new int[0], new int[0], new long[0], new long[0], new int[] {0}, new int[] {2}, new long[] {0});
+    }
+
+    public static void main(String[] args) {
+        // Run all tests
+        org.junit.runner.JUnitCore.main("TimeTravelConnectivity");
+    }
+}
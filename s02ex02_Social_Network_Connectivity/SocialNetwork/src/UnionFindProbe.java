@@ -0,0 +1,251 @@
+/******************************************************************************
+ *  Compilation:  javac UnionFindProbe.java
+ *  Dependencies: none
+ *
+ *  Optional instrumentation for union-find implementations.
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *  @class UnionFindProbe
+ *  @brief Collects find/union statistics of one union-find instance.
+ *
+ *  Instrumentation is switched on for the whole JVM with
+ *  `-Dunionfind.instrument=true`. ENABLED is a static final constant, so when
+ *  it is off the JIT removes every `if (UnionFindProbe.ENABLED)` block in the
+ *  union-find classes and they run exactly as without instrumentation.
+ *
+ *  Recorded data:
+ *  - Path length of every find (links followed up to the root), as a histogram.
+ *  - Number of parent links rewritten by path compression or halving.
+ *  - Size ratio larger / smaller of every union, as a log2 histogram.
+ *  - Component count over time, sampled every sampleInterval unions.
+ *
+ *  The data is available through snapshot(), which also emits a
+ *  `UnionFind.Summary` JFR event. Finds longer than LONG_PATH emit a
+ *  `UnionFind.LongPath` JFR event while a recording is running.
+ */
+
+public final class UnionFindProbe {
+
+    /** True if -Dunionfind.instrument=true was given at startup. */
+    public static final boolean ENABLED = Boolean.getBoolean("unionfind.instrument");
+
+    private static final int PATH_BUCKETS = 64;       /**< Paths of length >= 63 share the last bucket. */
+    private static final int RATIO_BUCKETS = 32;      /**< floor(log2(larger / smaller)) is at most 31. */
+    private static final int MAX_SAMPLES = 1024;      /**< Component samples kept before thinning out. */
+    private static final int LONG_PATH = 32;          /**< Finds at least this long are reported to JFR. */
+
+    private final String name;                        /**< Label of the instrumented structure. */
+    private long finds;                               /**< Number of find operations. */
+    private long totalPathLength;                     /**< Sum of all path lengths. */
+    private int maxPathLength;                        /**< Longest path seen. */
+    private final long[] pathHistogram = new long[PATH_BUCKETS];
+    private long rewrites;                            /**< Parent links changed by compression. */
+    private long unions;                              /**< Number of unions that merged two components. */
+    private final long[] ratioHistogram = new long[RATIO_BUCKETS];
+    private final long[] components = new long[MAX_SAMPLES]; /**< Component count after every sampleInterval-th union. */
+    private int samples;                              /**< Number of entries used in components. */
+    private long sampleInterval = 1;                  /**< Unions between two component samples. */
+
+    /**
+     * @brief Creates an empty probe.
+     *
+     * @param name Label used in snapshots and JFR events.
+     */
+    public UnionFindProbe(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @brief Records one find operation.
+     *
+     * @param pathLength Links followed from the element to its root.
+     * @param rewritten Parent links changed on the way.
+     */
+    public void recordFind(int pathLength, int rewritten) {
+        finds++;
+        totalPathLength += pathLength;
+        maxPathLength = Math.max(maxPathLength, pathLength);
+        pathHistogram[Math.min(pathLength, PATH_BUCKETS - 1)]++;
+        rewrites += rewritten;
+        if (pathLength >= LONG_PATH) {
+            LongPathEvent event = new LongPathEvent();
+            if (event.shouldCommit()) {
+                event.structure = name;
+                event.pathLength = pathLength;
+                event.rewritten = rewritten;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * @brief Records one union that merged two components.
+     *
+     * @param largerSize Size of the larger component before the union.
+     * @param smallerSize Size of the smaller component before the union.
+     * @param componentsAfter Number of components after the union.
+     */
+    public void recordUnion(long largerSize, long smallerSize, long componentsAfter) {
+        unions++;
+        long ratio = Math.max(1, largerSize / Math.max(1, smallerSize));
+        ratioHistogram[Math.min(RATIO_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(ratio))]++;
+        if (unions % sampleInterval == 0) {
+            if (samples == MAX_SAMPLES) {
+                // Keep every other sample and sample half as often from now on.
+                for (int i = 0; i < samples / 2; i++) {
+                    components[i] = components[2 * i + 1];
+                }
+                samples /= 2;
+                sampleInterval *= 2;
+                if (unions % sampleInterval != 0) return;
+            }
+            components[samples++] = componentsAfter;
+        }
+    }
+
+    /**
+     * @brief Returns the statistics collected so far and emits them as a JFR event.
+     *
+     * @return An immutable copy of the current statistics.
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot(this);
+        SummaryEvent event = new SummaryEvent();
+        if (event.shouldCommit()) {
+            event.structure = name;
+            event.finds = finds;
+            event.meanPathLength = snapshot.meanPathLength();
+            event.maxPathLength = maxPathLength;
+            event.rewrites = rewrites;
+            event.unions = unions;
+            event.components = samples > 0 ? components[samples - 1] : -1;
+            event.commit();
+        }
+        return snapshot;
+    }
+
+    /**
+     * @class Snapshot
+     * @brief Immutable copy of the statistics of a probe.
+     */
+    public static final class Snapshot {
+        private final String name;
+        private final long finds;
+        private final long totalPathLength;
+        private final int maxPathLength;
+        private final long[] pathHistogram;
+        private final long rewrites;
+        private final long unions;
+        private final long[] ratioHistogram;
+        private final long[] components;
+        private final long sampleInterval;
+
+        private Snapshot(UnionFindProbe probe) {
+            name = probe.name;
+            finds = probe.finds;
+            totalPathLength = probe.totalPathLength;
+            maxPathLength = probe.maxPathLength;
+            pathHistogram = probe.pathHistogram.clone();
+            rewrites = probe.rewrites;
+            unions = probe.unions;
+            ratioHistogram = probe.ratioHistogram.clone();
+            components = Arrays.copyOf(probe.components, probe.samples);
+            sampleInterval = probe.sampleInterval;
+        }
+
+        /** @return Number of find operations. */
+        public long finds() {
+            return finds;
+        }
+
+        /** @return Average number of links followed per find. */
+        public double meanPathLength() {
+            return finds == 0 ? 0.0 : (double) totalPathLength / finds;
+        }
+
+        /** @return Longest path followed by a single find. */
+        public int maxPathLength() {
+            return maxPathLength;
+        }
+
+        /** @return Entry k counts finds with path length k; the last entry counts all longer ones. */
+        public long[] pathLengthHistogram() {
+            return pathHistogram.clone();
+        }
+
+        /** @return Total number of parent links rewritten by compression. */
+        public long rewrites() {
+            return rewrites;
+        }
+
+        /** @return Number of unions that merged two components. */
+        public long unions() {
+            return unions;
+        }
+
+        /** @return Entry k counts unions with floor(log2(larger / smaller)) == k. */
+        public long[] sizeRatioHistogram() {
+            return ratioHistogram.clone();
+        }
+
+        /** @return Component count after union number (i + 1) * componentSampleInterval(). */
+        public long[] componentCounts() {
+            return components.clone();
+        }
+
+        /** @return Number of unions between two entries of componentCounts(). */
+        public long componentSampleInterval() {
+            return sampleInterval;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(name).append(": ").append(finds).append(" finds, mean path ")
+              .append(String.format("%.3f", meanPathLength())).append(", max path ").append(maxPathLength)
+              .append(", ").append(rewrites).append(" rewrites, ").append(unions).append(" unions");
+            sb.append("\n  path lengths:");
+            for (int k = 0; k < pathHistogram.length; k++) {
+                if (pathHistogram[k] != 0) sb.append(' ').append(k).append('=').append(pathHistogram[k]);
+            }
+            sb.append("\n  size ratios (log2):");
+            for (int k = 0; k < ratioHistogram.length; k++) {
+                if (ratioHistogram[k] != 0) sb.append(' ').append(k).append('=').append(ratioHistogram[k]);
+            }
+            return sb.toString();
+        }
+    }
+
+    @Name("UnionFind.Summary")
+    @Label("Union-Find Summary")
+    @Category("Union-Find")
+    @Description("Statistics of one union-find instance at the time of a snapshot")
+    static final class SummaryEvent extends Event {
+        @Label("Structure") String structure;
+        @Label("Finds") long finds;
+        @Label("Mean Path Length") double meanPathLength;
+        @Label("Max Path Length") int maxPathLength;
+        @Label("Rewritten Links") long rewrites;
+        @Label("Unions") long unions;
+        @Label("Components") long components;
+    }
+
+    @Name("UnionFind.LongPath")
+    @Label("Union-Find Long Path")
+    @Category("Union-Find")
+    @Description("A find operation that followed an unusually long path")
+    static final class LongPathEvent extends Event {
+        @Label("Structure") String structure;
+        @Label("Path Length") int pathLength;
+        @Label("Rewritten Links") int rewritten;
+    }
+}
@@ -1,4 +1,6 @@
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * This class implements solutions for the Two Sum and Three Sum problems. 
@@ -9,22 +11,32 @@ import java.util.*;
  * Key functionalities:
  * - `twoSum(int[] arr, int target)` finds two numbers in the array that 
  *   sum up to the given target.
+ * - `twoSumAll(int[] arr, int[] targets)` answers many Two Sum targets 
+ *   against the same array, preprocessing it only once.
  * - `threeSum(int[] arr, int target)` finds all unique triplets in the 
  *   array that sum up to the given target.
  * 
  * The solutions are optimized for time complexity:
- * - The Two Sum solution uses a HashMap to find the complement of each 
- *   element in O(n) time.
+ * - The Two Sum solution uses a primitive open-addressing hash table 
+ *   (IntIntTable) to find the complement of each element in O(n) time, 
+ *   without boxing or allocating a node per element.
+ * - The batch Two Sum sorts a copy of the array once and answers every 
+ *   target with a two-pointer scan over it.
  * - The Three Sum solution uses sorting and a two-pointer technique to 
- *   find triplets in O(n^2) time, making it more efficient for large inputs.
+ *   find triplets in O(n^2) time, making it more efficient for large inputs. 
+ *   The outer loop is split across fork-join workers, and triplets are 
+ *   passed to a primitive callback or only counted.
  * 
  * Time Complexity:
  * - `twoSum`: O(n), where n is the length of the array.
+ * - `twoSumAll`: O(n log n + k * n), where k is the number of targets.
  * - `threeSum`: O(n^2), where n is the length of the array.
  * 
  * Space Complexity:
  * - `twoSum`: O(N), where N is the number of unique elements in the map.
- * - `threeSum`: O(N), where N is the number of unique triplets found.
+ * - `twoSumAll`: O(n + k).
+ * - `threeSum`: O(N), where N is the number of unique triplets found; 
+ *   O(n) for the callback and count-only variants.
  */
 public class Sum {
 
@@ -41,67 +53,284 @@ public class Sum {
     // Space Complexity: O(N) 
     static List<Integer> twoSum(int[] arr, int target)
     {
-        Map<Integer, Integer> map = new HashMap<>();  // Map to store the complement and index.
+        IntIntTable map = new IntIntTable(arr.length);  // Table to store each value and its index.
 
         for(int i = 0; i < arr.length; ++i)
         {
             int complement = target - arr[i];  // Calculate the complement for the current element.
-            if(map.containsKey(complement))  // If the complement is already in the map, return the result.
+            int index = map.get(complement);
+            if(index != IntIntTable.MISSING)  // If the complement is already in the table, return the result.
             {
-                return Arrays.asList(map.get(complement), i);  // Return the pair of indices.
+                return Arrays.asList(index, i);  // Return the pair of indices.
             }
-            map.put(arr[i], i);  // Store the current element and its index in the map.
+            map.put(arr[i], i);  // Store the current element and its index in the table.
         }
 
         return Collections.emptyList();  // Return an empty list if no solution is found.
     }
 
+    /**
+     * Solves the Two Sum problem for many targets against the same array.
+     * 
+     * The array is preprocessed once: every value is packed together with its 
+     * index into a long and the longs are sorted, so no objects are created. 
+     * Each target is then answered with a two-pointer scan over the sorted 
+     * values. Sums are computed in long arithmetic, so they never overflow.
+     * 
+     * @param arr The input array of integers (not modified).
+     * @param targets The target sums to be found.
+     * @return An array of length 2 * targets.length. Entries 2t and 2t + 1 hold 
+     *         two indices i < j with arr[i] + arr[j] == targets[t], or -1 if no 
+     *         such pair exists.
+     */
+    // Time Complexity: O(n log n + k * n), where k is the number of targets
+    // Space Complexity: O(n + k)
+    static int[] twoSumAll(int[] arr, int[] targets)
+    {
+        long[] sorted = new long[arr.length];  // Value in the high, index in the low 32 bits.
+        for(int i = 0; i < arr.length; ++i)
+        {
+            sorted[i] = ((long) arr[i] << 32) | i;
+        }
+        Arrays.sort(sorted);  // Signed order of the longs is the order of the values.
+
+        int[] result = new int[2 * targets.length];
+        Arrays.fill(result, -1);
+
+        for(int t = 0; t < targets.length; ++t)
+        {
+            int left = 0;
+            int right = sorted.length - 1;
+
+            while(left < right)
+            {
+                long sum = (sorted[left] >> 32) + (sorted[right] >> 32);
+                if(sum == targets[t])  // Found a pair, store its indices in increasing order.
+                {
+                    int i = (int) sorted[left];
+                    int j = (int) sorted[right];
+                    result[2 * t] = Math.min(i, j);
+                    result[2 * t + 1] = Math.max(i, j);
+                    break;
+                }
+                else if(sum < targets[t])
+                {
+                    ++left;
+                }
+                else
+                {
+                    --right;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Hash table from int keys to non-negative int values with open addressing 
+     * and linear probing. Keys and values live in two primitive arrays, so 
+     * nothing is boxed and no entry objects are allocated.
+     */
+    private static final class IntIntTable
+    {
+        static final int MISSING = -1;  // Returned by get() for absent keys.
+
+        private final int[] keys;
+        private final int[] values;  // value + 1, so that 0 marks an empty slot
+        private final int mask;
+
+        /**
+         * Creates a table that can hold the given number of keys at a load factor 
+         * of at most 1/2. It does not grow beyond that.
+         */
+        IntIntTable(int expectedKeys)
+        {
+            int capacity = Integer.highestOneBit(Math.max(2, 2 * expectedKeys - 1)) << 1;
+            keys = new int[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        int get(int key)
+        {
+            for(int slot = slot(key); values[slot] != 0; slot = (slot + 1) & mask)
+            {
+                if(keys[slot] == key)
+                {
+                    return values[slot] - 1;
+                }
+            }
+            return MISSING;
+        }
+
+        void put(int key, int value)
+        {
+            int slot = slot(key);
+            while(values[slot] != 0 && keys[slot] != key)
+            {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value + 1;
+        }
+
+        private int slot(int key)
+        {
+            int h = key * 0x9E3779B9;  // Fibonacci hashing spreads consecutive keys.
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+
+    /**
+     * Receives the triplets found by the Three Sum engine as primitives.
+     */
+    @FunctionalInterface
+    interface TripletConsumer
+    {
+        void accept(int a, int b, int c);
+    }
+
+    private static final int THREE_SUM_GRAIN = 1 << 6;  // Outer indices handled by one fork-join task.
+
     /**
      * Solves the Three Sum problem by finding all unique triplets in the array 
      * that sum up to the given target.
      * 
-     * @param arr The input array of integers.
+     * @param arr The input array of integers (not modified).
      * @param target The target sum for the triplets.
-     * @return A list of unique triplets that sum up to the target.
+     * @return A list of unique triplets that sum up to the target, in 
+     *         increasing order.
      */
     static List<List<Integer>> threeSum(int[] arr, int target)
+    {
+        List<List<Integer>> result = Collections.synchronizedList(new ArrayList<>());
+        threeSum(arr, target, (a, b, c) -> result.add(Arrays.asList(a, b, c)));
+
+        // Workers report in no particular order; a <= b <= c, and a, b determine c.
+        result.sort(Comparator.<List<Integer>>comparingInt(t -> t.get(0)).thenComparingInt(t -> t.get(1)));
+        return result;
+    }
+
+    /**
+     * Finds all unique triplets of values a <= b <= c in the array with 
+     * a + b + c == target and passes each of them to the consumer.
+     * 
+     * The engine sorts a copy of the array and splits the outer index across 
+     * fork-join workers; every worker runs the two-pointer scan for its 
+     * indices. Duplicates are skipped by comparing with the neighboring value 
+     * instead of hashing, so no objects are allocated per triplet. Sums are 
+     * computed in long arithmetic and never overflow.
+     * 
+     * @param arr The input array of integers (not modified).
+     * @param target The target sum for the triplets.
+     * @param consumer Receives every triplet once. It may be called from 
+     *                 several threads at the same time, or be null to only count.
+     * @return The number of unique triplets.
+     */
+    // Time Complexity: O(n^2 / p) on p workers
+    // Space Complexity: O(n) for the sorted copy
+    static long threeSum(int[] arr, long target, TripletConsumer consumer)
     {
         if(arr.length < 3)  // If there are fewer than 3 elements, no triplet is possible.
         {
-            return Collections.emptyList();
+            return 0;
         }
 
-        Arrays.sort(arr);  // Sort the array to use the two-pointer technique.
-        Set<List<Integer>> result = new HashSet<>();  // Set to store unique triplets.
+        int[] sorted = arr.clone();
+        Arrays.sort(sorted);  // Sort the copy to use the two-pointer technique.
+        return ForkJoinPool.commonPool().invoke(new ThreeSumTask(sorted, target, consumer, 0, sorted.length - 2));
+    }
 
-        for(int i = 0; i < arr.length - 2; ++i)  // Iterate through each element to find triplets.
+    /**
+     * Counts the unique triplets in the array that sum up to the given target, 
+     * without materializing them.
+     * 
+     * @param arr The input array of integers (not modified).
+     * @param target The target sum for the triplets.
+     * @return The number of unique triplets.
+     */
+    static long threeSumCount(int[] arr, long target)
+    {
+        return threeSum(arr, target, null);
+    }
+
+    /**
+     * Runs the two-pointer scan for the outer indices [lo, hi) of a sorted 
+     * array, splitting the range in halves until it is at most THREE_SUM_GRAIN.
+     */
+    @SuppressWarnings("serial") // Never serialized; only run in the common pool
+    private static final class ThreeSumTask extends RecursiveTask<Long>
+    {
+        private final int[] sorted;
+        private final long target;
+        private final TripletConsumer consumer;
+        private final int lo;
+        private final int hi;
+
+        ThreeSumTask(int[] sorted, long target, TripletConsumer consumer, int lo, int hi)
+        {
+            this.sorted = sorted;
+            this.target = target;
+            this.consumer = consumer;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Long compute()
         {
-            int left = i + 1;  // Left pointer starts just after the current element.
-            int right = arr.length - 1;  // Right pointer starts from the end of the array.
+            if(hi - lo > THREE_SUM_GRAIN)
+            {
+                int mid = (lo + hi) >>> 1;
+                ThreeSumTask right = new ThreeSumTask(sorted, target, consumer, mid, hi);
+                right.fork();
+                long count = new ThreeSumTask(sorted, target, consumer, lo, mid).compute();
+                return count + right.join();
+            }
 
-            while(left < right)  // While the left pointer is less than the right pointer.
+            long count = 0;
+            for(int i = lo; i < hi; ++i)
             {
-                int sum = arr[i] + arr[left] + arr[right];  // Calculate the sum of the current triplet.
-                if(sum == target)  // If the sum matches the target, add the triplet to the result set.
-                {
-                    result.add(Arrays.asList(arr[i], arr[left], arr[right]));
-                    
-                    // Move both pointers to avoid duplicates.
-                    ++left;
-                    --right;
-                } 
-                else if(sum < target)  // If the sum is less than the target, move the left pointer to the right.
+                if(i > 0 && sorted[i] == sorted[i - 1])  // Same first value as before, same triplets.
                 {
-                    left += 1;
+                    continue;
                 }
-                else  // If the sum is greater than the target, move the right pointer to the left.
+
+                int left = i + 1;  // Left pointer starts just after the current element.
+                int right = sorted.length - 1;  // Right pointer starts from the end of the array.
+
+                while(left < right)
                 {
-                    right -=1;
+                    long sum = (long) sorted[i] + sorted[left] + sorted[right];
+                    if(sum == target)
+                    {
+                        ++count;
+                        if(consumer != null)
+                        {
+                            consumer.accept(sorted[i], sorted[left], sorted[right]);
+                        }
+
+                        // Move both pointers past all copies of the values just used.
+                        int leftValue = sorted[left];
+                        while(left < right && sorted[left] == leftValue)
+                        {
+                            ++left;
+                        }
+                        --right;
+                    }
+                    else if(sum < target)  // If the sum is less than the target, move the left pointer to the right.
+                    {
+                        ++left;
+                    }
+                    else  // If the sum is greater than the target, move the right pointer to the left.
+                    {
+                        --right;
+                    }
                 }
             }
+            return count;
         }
-
-        return new ArrayList<>(result);  // Convert the result set to a list and return it.
     }
 
     /**
@@ -115,6 +344,10 @@ public class Sum {
         int target = 9;
         System.out.println(twoSum(arr, target));  // Expected output: [0, 1] (arr[0] + arr[1] = 9)
 
+        // Test case for batch Two Sum
+        int[] targets = {9, 26, 18, 100};
+        System.out.println(Arrays.toString(twoSumAll(arr, targets)));  // Expected output: [0, 1, 2, 3, 1, 2, -1, -1]
+
         // Test case for Three Sum
         int[] arr2 = {-4, -3, -2, 0, 4, 5, 7, 11, 15};
         System.out.println(threeSum(arr2, target));  // Expected output: unique triplets summing to 9
@@ -122,5 +355,6 @@ public class Sum {
         // Another test case for Three Sum with different target
         int[] arr3 = {-1, 0, 1, 2, -1, -4};
         System.out.println(threeSum(arr3, 0));  // Expected output: [[-1, -1, 2], [-1, 0, 1]]
+        System.out.println(threeSumCount(arr3, 0));  // Expected output: 2
     }
 }
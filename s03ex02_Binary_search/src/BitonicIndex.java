@@ -0,0 +1,133 @@
+/*
+Reusable search index over a read-only bitonic array.
+
+BitonicSearch finds the peak again on every call and then runs two binary
+searches over the raw array, whose first probes jump across the whole array and
+miss the cache every time. BitonicIndex does the preprocessing once:
+1. Find the peak (and check that the array really is bitonic) in one scan.
+2. Store the ascending half, and the descending half reversed so it is ascending
+   too, each in Eytzinger (BFS) order: the root at index 1 and the children of
+   node k at 2k and 2k + 1.
+3. Answer contains(x) and rank(x) (the number of elements smaller than x) with
+   one lower-bound search in each half.
+
+Why Eytzinger order:
+- The first levels of the tree are the first elements of the array, so the
+  probes of every search start in the same few cache lines, which stay cached.
+- The children of node k lie next to each other, and the 16 great-great-grand
+  children of k are contiguous (16k .. 16k + 15), so the hardware prefetcher
+  sees a regular pattern. Java has no explicit prefetch instruction, so this
+  layout is the part of "software prefetching" that carries over.
+- The search loop is branchless: k = 2k + (a[k] < x ? 1 : 0) compiles to a
+  conditional move, so there are no mispredicted branches to flush.
+
+Time Complexity: O(n) to build, O(log n) per query
+Space Complexity: O(n), two ints per element (value and its sorted position)
+*/
+
+public class BitonicIndex {
+    private final int[] ascending;       // ascending half in Eytzinger order, index 0 unused
+    private final int[] ascendingRank;   // position of every node in the sorted ascending half
+    private final int[] descending;      // reversed descending half in Eytzinger order, index 0 unused
+    private final int[] descendingRank;
+    private final int peak;
+
+    /**
+     * Builds the index over a bitonic array of distinct values.
+     *
+     * @param arr strictly increasing, then strictly decreasing (either part may be empty)
+     * @throws IllegalArgumentException if arr is not bitonic
+     */
+    public BitonicIndex(int[] arr) {
+        int top = 0;
+        while (top + 1 < arr.length && arr[top] < arr[top + 1]) {
+            top++;
+        }
+        for (int i = top + 1; i < arr.length; i++) {
+            if (arr[i - 1] <= arr[i]) {
+                throw new IllegalArgumentException("Array is not bitonic at index " + i + ".");
+            }
+        }
+        peak = arr.length == 0 ? -1 : top;
+
+        int[] up = new int[peak + 1];
+        System.arraycopy(arr, 0, up, 0, up.length);
+        int[] down = new int[arr.length - up.length];
+        for (int i = 0; i < down.length; i++) {
+            down[i] = arr[arr.length - 1 - i];
+        }
+
+        ascending = new int[up.length + 1];
+        ascendingRank = new int[up.length + 1];
+        layout(up, ascending, ascendingRank, 0, 1);
+        descending = new int[down.length + 1];
+        descendingRank = new int[down.length + 1];
+        layout(down, descending, descendingRank, 0, 1);
+    }
+
+    /**
+     * Fills the subtree rooted at node k in order with sorted[i], sorted[i + 1], ...
+     *
+     * @return the index of the next sorted element
+     */
+    private static int layout(int[] sorted, int[] tree, int[] rank, int i, int k) {
+        if (k < tree.length) {
+            i = layout(sorted, tree, rank, i, 2 * k);
+            tree[k] = sorted[i];
+            rank[k] = i++;
+            i = layout(sorted, tree, rank, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * Returns the node holding the smallest element >= x, or 0 if there is none.
+     */
+    private static int lowerBound(int[] tree, int x) {
+        int k = 1;
+        while (k < tree.length) {
+            k = 2 * k + (tree[k] < x ? 1 : 0);
+        }
+        // The path went right after the answer on every step below it; undo those steps.
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    public boolean contains(int x) {
+        int k = lowerBound(ascending, x);
+        if (k != 0 && ascending[k] == x) {
+            return true;
+        }
+        k = lowerBound(descending, x);
+        return k != 0 && descending[k] == x;
+    }
+
+    /**
+     * Returns the number of elements smaller than x.
+     */
+    public int rank(int x) {
+        int k = lowerBound(ascending, x);
+        int rank = k == 0 ? ascending.length - 1 : ascendingRank[k];
+        k = lowerBound(descending, x);
+        return rank + (k == 0 ? descending.length - 1 : descendingRank[k]);
+    }
+
+    public int size() {
+        return ascending.length + descending.length - 2;
+    }
+
+    /**
+     * Returns the index of the maximum in the original array, or -1 if it is empty.
+     */
+    public int peakIndex() {
+        return peak;
+    }
+
+    public static void main(String[] args) {
+        BitonicIndex index = new BitonicIndex(new int[] {1, 3, 8, 12, 4, 2});
+        System.out.println("Peak index: " + index.peakIndex());
+        for (int x : new int[] {8, 5, 2, 13}) {
+            System.out.println("Search " + x + ": " + (index.contains(x) ? "Found" : "Not Found")
+                    + ", elements smaller: " + index.rank(x));
+        }
+    }
+}
@@ -1,5 +1,13 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /*
@@ -18,6 +26,12 @@ first increases and then decreases). Steps:
 
 Time Complexity: O(logn)
 Space Complexity: O(1)
+
+Besides ArrayList<Integer>, the search works on int[], long[], LongBuffer and
+Trace (a memory-mapped file of longs of any size, see mapTrace) without boxing. For many
+targets, searchAll finds the peak once and then either binary searches every
+target or, when there are many targets, sorts them and walks both halves in one
+monotone pass: O(n + q log q) instead of O(q log n) for q targets.
 */
 
 public class BitonicSearch {
@@ -96,6 +110,279 @@ public class BitonicSearch {
         return false;
     }
 
+    public static boolean search(int[] arr, int target) {
+        int peak = findPeak(arr);
+        return peak >= 0
+                && (indexOf(arr, 0, peak, target, true) >= 0
+                    || indexOf(arr, peak + 1, arr.length - 1, target, false) >= 0);
+    }
+
+    public static boolean search(long[] arr, long target) {
+        return search(LongBuffer.wrap(arr), target);
+    }
+
+    /**
+     * Searches the elements 0 .. limit() - 1 of the buffer (absolute indices,
+     * the position is ignored).
+     */
+    public static boolean search(LongBuffer arr, long target) {
+        return search(Trace.of(arr), target);
+    }
+
+    public static boolean search(Trace arr, long target) {
+        long peak = findPeak(arr);
+        return peak >= 0
+                && (indexOf(arr, 0, peak, target, true) >= 0
+                    || indexOf(arr, peak + 1, arr.size() - 1, target, false) >= 0);
+    }
+
+    /**
+     * Returns the index of the maximum, or -1 if the array is empty.
+     */
+    static int findPeak(int[] arr) {
+        if (arr.length == 0) {
+            return -1;
+        }
+        int low = 0;
+        int high = arr.length - 1;
+        while (low < high) {
+            int mid = low + (high - low) / 2;
+            if (arr[mid] < arr[mid + 1]) {
+                low = mid + 1; // We are in the ascending part.
+            } else {
+                high = mid; // We are in the descending part, or at the peak.
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the maximum, or -1 if the trace is empty.
+     */
+    static long findPeak(Trace arr) {
+        if (arr.size() == 0) {
+            return -1;
+        }
+        long low = 0;
+        long high = arr.size() - 1;
+        while (low < high) {
+            long mid = low + (high - low) / 2;
+            if (arr.get(mid) < arr.get(mid + 1)) {
+                low = mid + 1; // We are in the ascending part.
+            } else {
+                high = mid; // We are in the descending part, or at the peak.
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Binary search in arr[low .. high], sorted ascending or descending.
+     * Returns the index of target, or -1 if it is not there.
+     */
+    static int indexOf(int[] arr, int low, int high, int target, boolean ascending) {
+        while (low <= high) {
+            int mid = low + (high - low) / 2;
+            if (arr[mid] == target) {
+                return mid;
+            }
+            if ((arr[mid] < target) == ascending) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    static long indexOf(Trace arr, long low, long high, long target, boolean ascending) {
+        while (low <= high) {
+            long mid = low + (high - low) / 2;
+            long value = arr.get(mid);
+            if (value == target) {
+                return mid;
+            }
+            if ((value < target) == ascending) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Searches for every target in the bitonic array.
+     *
+     * @return found[t] is true iff targets[t] is in the array
+     */
+    public static boolean[] searchAll(int[] arr, int[] targets) {
+        boolean[] found = new boolean[targets.length];
+        int peak = findPeak(arr);
+        if (peak < 0) {
+            return found;
+        }
+
+        if (!worthWalking(arr.length, targets.length)) {
+            for (int t = 0; t < targets.length; t++) {
+                found[t] = indexOf(arr, 0, peak, targets[t], true) >= 0
+                        || indexOf(arr, peak + 1, arr.length - 1, targets[t], false) >= 0;
+            }
+            return found;
+        }
+
+        // Answer the sorted targets with one forward walk over the ascending part
+        // and one backward walk over the descending part, then map the answers back.
+        int[] sorted = targets.clone();
+        Arrays.sort(sorted);
+        boolean[] sortedFound = new boolean[sorted.length];
+        int up = 0;
+        int down = arr.length - 1;
+        for (int q = 0; q < sorted.length; q++) {
+            while (up <= peak && arr[up] < sorted[q]) {
+                up++;
+            }
+            while (down > peak && arr[down] < sorted[q]) {
+                down--;
+            }
+            sortedFound[q] = (up <= peak && arr[up] == sorted[q]) || (down > peak && arr[down] == sorted[q]);
+        }
+        for (int t = 0; t < targets.length; t++) {
+            found[t] = sortedFound[Arrays.binarySearch(sorted, targets[t])];
+        }
+        return found;
+    }
+
+    public static boolean[] searchAll(long[] arr, long[] targets) {
+        return searchAll(LongBuffer.wrap(arr), targets);
+    }
+
+    /**
+     * Searches for every target among the elements 0 .. limit() - 1 of the buffer.
+     *
+     * @return found[t] is true iff targets[t] is in the buffer
+     */
+    public static boolean[] searchAll(LongBuffer arr, long[] targets) {
+        return searchAll(Trace.of(arr), targets);
+    }
+
+    /**
+     * Searches for every target in the trace.
+     *
+     * @return found[t] is true iff targets[t] is in the trace
+     */
+    public static boolean[] searchAll(Trace arr, long[] targets) {
+        boolean[] found = new boolean[targets.length];
+        long peak = findPeak(arr);
+        if (peak < 0) {
+            return found;
+        }
+        long size = arr.size();
+
+        if (!worthWalking(size, targets.length)) {
+            for (int t = 0; t < targets.length; t++) {
+                found[t] = indexOf(arr, 0, peak, targets[t], true) >= 0
+                        || indexOf(arr, peak + 1, size - 1, targets[t], false) >= 0;
+            }
+            return found;
+        }
+
+        long[] sorted = targets.clone();
+        Arrays.sort(sorted);
+        boolean[] sortedFound = new boolean[sorted.length];
+        long up = 0;
+        long down = size - 1;
+        for (int q = 0; q < sorted.length; q++) {
+            while (up <= peak && arr.get(up) < sorted[q]) {
+                up++;
+            }
+            while (down > peak && arr.get(down) < sorted[q]) {
+                down--;
+            }
+            sortedFound[q] = (up <= peak && arr.get(up) == sorted[q]) || (down > peak && arr.get(down) == sorted[q]);
+        }
+        for (int t = 0; t < targets.length; t++) {
+            found[t] = sortedFound[Arrays.binarySearch(sorted, targets[t])];
+        }
+        return found;
+    }
+
+    /**
+     * The monotone walk reads every element once, q binary searches read about
+     * 2 q log2(n) elements; walk only when that is more.
+     */
+    private static boolean worthWalking(long size, int queries) {
+        int log = 64 - Long.numberOfLeadingZeros(size);
+        return 2L * queries * log >= size;
+    }
+
+    /**
+     * Maps a file of longs (native byte order) read-only, e.g. a sensor trace.
+     * A single mapping is limited to 2^31 - 1 bytes, so the file is mapped in
+     * windows of 2^27 longs (1 GiB) and the trace is addressed by long index.
+     * A trailing partial long is ignored.
+     *
+     * @param file the trace file
+     * @return a read-only trace over the whole file
+     * @throws IOException if the file cannot be mapped
+     */
+    public static Trace mapTrace(Path file) throws IOException {
+        return mapTrace(file, Trace.WINDOW_SHIFT);
+    }
+
+    static Trace mapTrace(Path file, int windowShift) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size() / Long.BYTES;
+            long windowLongs = 1L << windowShift;
+            LongBuffer[] windows = new LongBuffer[Math.toIntExact((size + windowLongs - 1) >>> windowShift)];
+            for (int w = 0; w < windows.length; w++) {
+                long first = (long) w << windowShift;
+                long longs = Math.min(windowLongs, size - first);
+                windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, first * Long.BYTES, longs * Long.BYTES)
+                        .order(ByteOrder.nativeOrder()).asLongBuffer();
+            }
+            return new Trace(windows, windowShift, size);
+        }
+    }
+
+    /**
+     * A read-only sequence of longs addressed by long index and backed by
+     * LongBuffer windows of 2^shift elements each (the last may be shorter).
+     * The mappings stay valid after the channel is closed.
+     */
+    public static final class Trace {
+        static final int WINDOW_SHIFT = 27;
+
+        private final LongBuffer[] windows;
+        private final int shift;
+        private final long mask;
+        private final long size;
+
+        private Trace(LongBuffer[] windows, int shift, long size) {
+            this.windows = windows;
+            this.shift = shift;
+            this.mask = (1L << shift) - 1;
+            this.size = size;
+        }
+
+        /**
+         * Wraps the elements 0 .. limit() - 1 of the buffer (absolute indices,
+         * the position is ignored).
+         */
+        static Trace of(LongBuffer buffer) {
+            return new Trace(new LongBuffer[] {buffer}, Integer.SIZE - 1, buffer.limit());
+        }
+
+        public long size() {
+            return size;
+        }
+
+        public long get(long index) {
+            Objects.checkIndex(index, size);
+            return windows[(int) (index >>> shift)].get((int) (index & mask));
+        }
+    }
+
     public static void main(String[] args) {
         // Test case 1: Basic bitonic array
         ArrayList<Integer> arr1 = new ArrayList<>(List.of(1, 3, 8, 12, 4, 2));
@@ -125,5 +412,12 @@ public class BitonicSearch {
         // Test case 6: Empty array
         ArrayList<Integer> arr6 = new ArrayList<>();
         System.out.println("Search 1 in arr6: " + (search(arr6, 1) ? "Found" : "Not Found"));
+
+        // Test case 7: Primitive arrays and a batch of targets
+        int[] arr7 = {1, 3, 8, 12, 4, 2};
+        System.out.println("Search 4 in arr7: " + (search(arr7, 4) ? "Found" : "Not Found"));
+        System.out.println("Search 1..6 in arr7: " + Arrays.toString(searchAll(arr7, new int[] {1, 2, 3, 4, 5, 6})));
+        long[] arr8 = {-5L, 1L << 40, 7L};
+        System.out.println("Search 2^40 in arr8: " + (search(arr8, 1L << 40) ? "Found" : "Not Found"));
     }
 }
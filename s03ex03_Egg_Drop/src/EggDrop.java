@@ -38,14 +38,382 @@
  * - Strategy: Use first egg to jump √n floors at a time, use second egg for
  *   linear search in the identified range
  * 
+ * Version 4 (optimal):
+ * - Constraints: k eggs, minimum worst-case number of tosses d
+ * - Approach: d tosses and k eggs resolve reach(d, k) = C(d,1) + ... + C(d,k)
+ *   floors, so d is the smallest value with reach(d, k) >= n (binary search)
+ * - Time Complexity: O(k lg n) to plan, with saturating arithmetic, so n can
+ *   go up to 10^18; d tosses to run
+ * - Space Complexity: O(1), plus an LRU cache of recent plans
+ * - Strategy: Drop reach(d-1, k-1) + 1 floors above the highest safe floor;
+ *   if the egg breaks, the floors below are exactly what is left to resolve
+ *   with one egg and one toss less
+ * 
  * Note: All versions maintain optimal complexity within their given constraints
  * of eggs and tosses allowed.
  ******************************************************************************/
 
-// TODO: Rewrite cpp code from EggDrop.cpp into java
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Egg drop experiments against a building whose eggs break from floor T on.
+ *
+ * Every strategy asks eggBreaksAt(floor), which counts the toss and, if the egg
+ * breaks, the broken egg, so the cost of a strategy can be read from tosses()
+ * and eggsBroken() afterwards. All strategies return T, or -1 if no floor of
+ * the building breaks an egg (T > n).
+ */
 public class EggDrop {
+    private static final long GROUND_LEVEL = 1;
+    private static final int CACHE_SIZE = 1024;
+    private static final long MAX_SIMULATED_TOSSES = 10_000_000;
+
+    /** Most recently used minDrops() answers, keyed by eggs and floors. */
+    private static final Map<Query, Long> MIN_DROPS_CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<Query, Long>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Query, Long> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    private final long breakingPoint;
+    private long tosses;
+    private long eggsBroken;
+
+    /**
+     * Creates a building in which eggs break from the given floor on.
+     *
+     * @param breakingPoint the lowest floor that breaks an egg (T >= 1)
+     * @throws IllegalArgumentException if breakingPoint < 1
+     */
+    public EggDrop(long breakingPoint) {
+        if (breakingPoint < GROUND_LEVEL) {
+            throw new IllegalArgumentException("Breaking point must be at least floor " + GROUND_LEVEL + ".");
+        }
+        this.breakingPoint = breakingPoint;
+    }
+
+    public long tosses() {
+        return tosses;
+    }
+
+    public long eggsBroken() {
+        return eggsBroken;
+    }
+
+    /** Sets the toss and egg counters back to zero. */
+    public void resetCounters() {
+        tosses = 0;
+        eggsBroken = 0;
+    }
+
+    // Version 0: 1 egg, <= T tosses
+    // Linear search from bottom up.
+    public long version0(long floors) {
+        return found(linearSearch(GROUND_LEVEL, floors), floors);
+    }
+
+    // Version 1: ~1lg n eggs and ~1lg n tosses
+    // k-way partitioning where k ≈ n/lg n, then binary search in the segment.
+    public long version1(long floors) {
+        if (floors < 2) {
+            return version0(floors);
+        }
+        long segmentSize = (long) Math.ceil(floors / (Math.log(floors) / Math.log(2)));
+        long survived = 0;
+
+        // Compare against the floors left rather than adding first, so the next drop cannot overflow.
+        while (segmentSize <= floors - survived && !eggBreaksAt(survived + segmentSize)) {
+            survived += segmentSize;
+        }
+
+        // Floor survived survived (or is the ground), the next drop broke (or is above the roof).
+        long low = survived + 1;
+        long high = segmentSize <= floors - survived ? survived + segmentSize - 1 : floors;
+        return found(binarySearch(low, high), floors);
+    }
+
+    // Version 2: ~lg T eggs and ~2lg T tosses
+    // Drop at floor 1, 2, 4, 8, 16, ... until it breaks (1 egg and lg T tosses),
+    // then binary search in the last range (another lg T).
+    public long version2(long floors) {
+        int exp = 0;
+        while (exp < 63 && (1L << exp) <= floors && !eggBreaksAt(1L << exp)) {
+            ++exp;
+        }
+
+        // After 2^62 survived there is no next power of two, so the range runs up to the roof.
+        long low = exp == 0 ? GROUND_LEVEL : (1L << (exp - 1)) + 1;
+        long high = exp == 63 ? floors : Math.min(floors, (1L << exp) - 1);
+        return found(binarySearch(low, high), floors);
+    }
+
+    // Version 3: 2 eggs and ~2sqrt(n) tosses
+    // Jump sqrt(n) floors at a time with the first egg, then search the last jump linearly.
+    public long version3(long floors) {
+        long step = Math.max(1, (long) Math.ceil(Math.sqrt(floors)));
+        long testLevel = step;
+        while (testLevel <= floors && !eggBreaksAt(testLevel)) {
+            testLevel += step;
+        }
+
+        long low = testLevel - step + 1;
+        long high = Math.min(floors, testLevel - 1);
+        return found(linearSearch(low, high), floors);
+    }
+
+    // Version 4: k eggs and the minimum number of tosses in the worst case.
+    // With d tosses and k eggs at most reach(d, k) = C(d,1) + ... + C(d,k) floors can
+    // be resolved: the first drop goes reach(d-1, k-1) + 1 floors above the highest
+    // known safe floor, so that if the egg breaks, the floors below are exactly
+    // what d - 1 tosses with k - 1 eggs can resolve.
+    public long optimal(int eggs, long floors) {
+        long low = 0;        // highest floor known to be safe
+        long high = floors;  // T is in low + 1 .. high + 1, where high + 1 > floors means none breaks
+        long drops = minDrops(eggs, floors);
+
+        while (low < high) {
+            long drop = Math.min(high, low + reach(drops - 1, eggs - 1, high - low) + 1);
+            if (eggBreaksAt(drop)) {
+                high = drop - 1;
+                --eggs;
+            } else {
+                low = drop;
+            }
+            --drops;
+        }
+        return found(low + 1, floors);
+    }
+
+    /**
+     * Returns the minimum number of tosses that determine T among floors floors
+     * (or that no floor breaks) with the given number of eggs, in the worst case.
+     *
+     * Binary search for the smallest d with reach(d, eggs) >= floors, which takes
+     * O(min(eggs, 64) log floors) time. Answers are kept in an LRU cache.
+     *
+     * @throws IllegalArgumentException if eggs < 1 or floors < 0
+     */
+    public static long minDrops(int eggs, long floors) {
+        if (eggs < 1 || floors < 0) {
+            throw new IllegalArgumentException("Need at least one egg and a non-negative number of floors.");
+        }
+        Query query = new Query(eggs, floors);
+        Long cached = MIN_DROPS_CACHE.get(query);
+        if (cached != null) {
+            return cached;
+        }
+
+        long low = 0;
+        long high = floors;  // One egg, one toss per floor
+        while (low < high) {
+            long mid = low + (high - low) / 2;
+            if (reach(mid, eggs, floors) >= floors) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        MIN_DROPS_CACHE.put(query, low);
+        return low;
+    }
+
+    /**
+     * Returns the floors the first egg is dropped from by the optimal strategy
+     * for as long as it does not break. The stream is lazy, so it can be
+     * consumed partially even when the schedule has billions of entries.
+     */
+    public static LongStream dropSchedule(int eggs, long floors) {
+        long totalDrops = minDrops(eggs, floors);
+        PrimitiveIterator.OfLong schedule = new PrimitiveIterator.OfLong() {
+            private long low = 0;
+            private long drops = totalDrops;
+
+            @Override
+            public boolean hasNext() {
+                return low < floors;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                low = Math.min(floors, low + reach(drops - 1, eggs - 1, floors - low) + 1);
+                --drops;
+                return low;
+            }
+        };
+        return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(schedule,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT | Spliterator.SORTED), false);
+    }
+
+    /**
+     * Returns min(cap, C(d,1) + C(d,2) + ... + C(d,eggs)), the number of floors
+     * d tosses with the given number of eggs can resolve. Stops as soon as the
+     * sum reaches cap, so nothing overflows for any d up to Long.MAX_VALUE.
+     */
+    static long reach(long d, int eggs, long cap) {
+        long sum = 0;
+        long term = 1;  // C(d, i - 1)
+        for (int i = 1; i <= eggs && i <= d && sum < cap; ++i) {
+            long factor = d - i + 1;
+            if (term <= Long.MAX_VALUE / factor) {
+                term = term * factor / i;
+            } else {
+                // C(d, i) = C(d, i - 1) * factor / i is exact, only the product overflows.
+                BigInteger exact = BigInteger.valueOf(term).multiply(BigInteger.valueOf(factor))
+                        .divide(BigInteger.valueOf(i));
+                if (exact.bitLength() >= Long.SIZE) {
+                    return cap;
+                }
+                term = exact.longValue();
+            }
+            sum = term >= cap - sum ? cap : sum + term;
+        }
+        return Math.min(sum, cap);
+    }
+
+    private boolean eggBreaksAt(long floor) {
+        ++tosses;
+        boolean breaks = floor >= breakingPoint;
+        if (breaks) {
+            ++eggsBroken;
+        }
+        return breaks;
+    }
+
+    /**
+     * Returns the lowest floor in low .. high that breaks an egg, or high + 1.
+     */
+    private long binarySearch(long low, long high) {
+        while (low <= high) {
+            long mid = low + (high - low) / 2;
+            if (eggBreaksAt(mid)) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the lowest floor in low .. high that breaks an egg, or high + 1.
+     */
+    private long linearSearch(long low, long high) {
+        for (long floor = low; floor <= high; ++floor) {
+            if (eggBreaksAt(floor)) {
+                return floor;
+            }
+        }
+        return high + 1;
+    }
+
+    private static long found(long floor, long floors) {
+        return floor <= floors ? floor : -1;
+    }
+
+    /** Key of the minDrops() cache. */
+    private static final class Query {
+        private final int eggs;
+        private final long floors;
+
+        Query(int eggs, long floors) {
+            this.eggs = eggs;
+            this.floors = floors;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Query && ((Query) other).eggs == eggs && ((Query) other).floors == floors;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * eggs + Long.hashCode(floors);
+        }
+    }
+
+    private interface Strategy {
+        long run(EggDrop building);
+    }
+
+    /**
+     * Simulation harness: runs every strategy against many breaking points T
+     * and prints the worst and average number of tosses and broken eggs.
+     *
+     * Usage: java EggDrop [floors] [eggs for version 4] [samples]
+     * With at most 'samples' floors (default 10000) every T in 1 .. n + 1 is
+     * tried, otherwise 'samples' random ones. Strategies that can need more
+     * than 10^7 tosses per run are skipped: the linear versions 0 and 3 above
+     * 10^7 floors, and version 4 when minDrops() is larger than that.
+     * Versions 1 and 2 need O(lg n) tosses and always run.
+     */
     public static void main(String[] args) throws Exception {
-        System.out.println("Hello, World!");
+        long floors = args.length > 0 ? Long.parseLong(args[0]) : 100;
+        int eggs = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int samples = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+
+        // Same check as EggDrop.cpp: breaking point 10 in a 100-story building.
+        EggDrop tenth = new EggDrop(10);
+        if (tenth.version0(100) != 10 || tenth.version1(100) != 10 || tenth.version2(100) != 10
+                || tenth.version3(100) != 10 || tenth.optimal(2, 100) != 10) {
+            throw new AssertionError("A strategy missed breaking point 10");
+        }
+
+        String[] names = {"version 0", "version 1", "version 2", "version 3", "optimal (" + eggs + " eggs)"};
+        Strategy[] strategies = {
+            b -> b.version0(floors),
+            b -> b.version1(floors),
+            b -> b.version2(floors),
+            b -> b.version3(floors),
+            b -> b.optimal(eggs, floors)
+        };
+        boolean exhaustive = floors < samples;
+        long runs = exhaustive ? floors + 1 : samples;
+        SplittableRandom random = new SplittableRandom(42);
+
+        System.out.printf("%d floors, %s%n", floors, exhaustive ? "every breaking point" : runs + " random breaking points");
+        System.out.printf("minimum worst-case tosses with %d eggs: %d%n", eggs, minDrops(eggs, floors));
+        System.out.printf("first drops of the optimal schedule: %s%n",
+                Arrays.toString(dropSchedule(eggs, floors).limit(8).toArray()));
+        System.out.printf("%-20s %12s %14s %10s%n", "strategy", "max tosses", "mean tosses", "max eggs");
+        for (int s = 0; s < strategies.length; s++) {
+            boolean tooSlow = s == 4 ? minDrops(eggs, floors) > MAX_SIMULATED_TOSSES
+                    : (s == 0 || s == 3) && floors > MAX_SIMULATED_TOSSES;
+            if (tooSlow) {
+                System.out.printf("%-20s %12s%n", names[s], "skipped");
+                continue;
+            }
+            long maxTosses = 0;
+            long maxEggs = 0;
+            double totalTosses = 0;
+            for (long run = 0; run < runs; run++) {
+                // T = floors + 1 means the egg never breaks; that does not exist for Long.MAX_VALUE floors.
+                long t = exhaustive ? run + 1 : 1 + random.nextLong(Math.max(floors, floors + 1));
+                EggDrop building = new EggDrop(t);
+                long answer = strategies[s].run(building);
+                if (answer != (t <= floors ? t : -1)) {
+                    throw new AssertionError(names[s] + " answered " + answer + " for T = " + t);
+                }
+                maxTosses = Math.max(maxTosses, building.tosses());
+                maxEggs = Math.max(maxEggs, building.eggsBroken());
+                totalTosses += building.tosses();
+            }
+            System.out.printf("%-20s %12d %14.2f %10d%n", names[s], maxTosses, totalTosses / runs, maxEggs);
+        }
     }
 }
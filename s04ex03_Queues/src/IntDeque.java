@@ -0,0 +1,214 @@
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A Deque (double-ended queue) of int values using a resizing circular array.
+ *
+ * Same layout as {@link RingDeque}, but the values are stored in an int[], so
+ * they are never boxed. The iterator is a PrimitiveIterator.OfInt; call
+ * nextInt() on it to read the values without boxing.
+ *
+ * Performance:
+ * - isEmpty, size: O(1)
+ * - addFirst, addLast: O(1) amortized (the array doubles when full)
+ * - removeFirst, removeLast: O(1) amortized (the array halves when a quarter full)
+ * - iterator operations: O(1) per operation
+ */
+public final class IntDeque implements Iterable<Integer> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] items;
+    private int head;   // index of the first item
+    private int size;
+    private int modCount;
+
+    /**
+     * Constructs an empty IntDeque.
+     */
+    public IntDeque() {
+        items = new int[MIN_CAPACITY];
+    }
+
+    /**
+     * Checks if the IntDeque is empty.
+     *
+     * @return true if the IntDeque is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of items in the IntDeque.
+     *
+     * @return the size of the IntDeque
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an item to the front of the IntDeque.
+     *
+     * @param item the item to add
+     */
+    public void addFirst(int item) {
+        if (size == items.length) {
+            resize(2 * items.length);
+        }
+        head = (head - 1) & (items.length - 1);
+        items[head] = item;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Adds an item to the back of the IntDeque.
+     *
+     * @param item the item to add
+     */
+    public void addLast(int item) {
+        if (size == items.length) {
+            resize(2 * items.length);
+        }
+        items[(head + size) & (items.length - 1)] = item;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Removes and returns the item from the front of the IntDeque.
+     *
+     * @return the item from the front
+     * @throws NoSuchElementException if the IntDeque is empty
+     */
+    public int removeFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Deque is empty!");
+        }
+        int result = items[head];
+        head = (head + 1) & (items.length - 1);
+        size--;
+        modCount++;
+        shrinkIfSparse();
+        return result;
+    }
+
+    /**
+     * Removes and returns the item from the back of the IntDeque.
+     *
+     * @return the item from the back
+     * @throws NoSuchElementException if the IntDeque is empty
+     */
+    public int removeLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Deque is empty!");
+        }
+        int last = (head + size - 1) & (items.length - 1);
+        int result = items[last];
+        size--;
+        modCount++;
+        shrinkIfSparse();
+        return result;
+    }
+
+    private void shrinkIfSparse() {
+        if (items.length > MIN_CAPACITY && size <= items.length / 4) {
+            resize(items.length / 2);
+        }
+    }
+
+    /**
+     * Moves the items to a new array of the given power-of-two capacity,
+     * unwrapped so that the first item is at index 0.
+     */
+    private void resize(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalStateException("Deque is too large");
+        }
+        int[] resized = new int[capacity];
+        int firstPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, resized, 0, firstPart);
+        System.arraycopy(items, 0, resized, firstPart, size - firstPart);
+        items = resized;
+        head = 0;
+    }
+
+    /**
+     * Iterator for the IntDeque. Fails with ConcurrentModificationException
+     * if the deque is changed while iterating, since positions shift then.
+     */
+    private class IntDequeIterator implements PrimitiveIterator.OfInt {
+        private int index;
+        private final int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public int nextInt() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the Deque");
+            }
+            return items[(head + index++) & (items.length - 1)];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Remove operation is not supported");
+        }
+    }
+
+    /**
+     * Returns an iterator over items in order from front to back.
+     *
+     * @return an iterator for the IntDeque
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new IntDequeIterator();
+    }
+
+    /**
+     * Unit testing of the IntDeque class.
+     *
+     * @param args command-line arguments (not used)
+     */
+    public static void main(String[] args) {
+        IntDeque deque = new IntDeque();
+
+        assert deque.isEmpty() : "Deque should be empty initially";
+
+        for (int i = 0; i < 100; i++) {
+            deque.addLast(i);
+            deque.addFirst(-i - 1);
+        }
+        assert deque.size() == 200 : "Size should be 200 after adding elements";
+        assert deque.removeFirst() == -100 : "First element should be -100";
+        assert deque.removeLast() == 99 : "Last element should be 99";
+
+        int expected = -99;
+        for (PrimitiveIterator.OfInt it = deque.iterator(); it.hasNext(); expected++) {
+            assert it.nextInt() == expected : "Iterator should return items from front to back";
+        }
+
+        while (deque.size() > 1) {
+            deque.removeLast();
+        }
+        assert deque.removeFirst() == -99 : "Remaining element should be -99";
+
+        try {
+            deque.removeFirst();
+        } catch (NoSuchElementException e) {
+            System.out.println("Caught expected exception for empty deque");
+        }
+
+        System.out.println("All tests passed.");
+    }
+}
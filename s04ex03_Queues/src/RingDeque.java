@@ -0,0 +1,235 @@
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A generic Deque (double-ended queue) implementation using a resizing
+ * circular array.
+ *
+ * Same API as {@link Deque}, but the items live in one array instead of one
+ * node per item, so adding and removing allocates nothing (except when the
+ * array grows or shrinks) and iteration walks memory in order. The capacity is
+ * always a power of two, so wrapping an index around is a mask instead of a
+ * modulo.
+ *
+ * Deque stays the linked-list version with worst-case O(1) operations, as the
+ * assignment asks; here the guarantees are amortized.
+ *
+ * Performance:
+ * - isEmpty, size: O(1)
+ * - addFirst, addLast: O(1) amortized (the array doubles when full)
+ * - removeFirst, removeLast: O(1) amortized (the array halves when a quarter full)
+ * - iterator operations: O(1) per operation
+ *
+ * @param <Item> the type of elements held in this deque
+ */
+public final class RingDeque<Item> implements Iterable<Item> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private Item[] items;
+    private int head;   // index of the first item
+    private int size;
+    private int modCount;
+
+    /**
+     * Constructs an empty RingDeque.
+     */
+    @SuppressWarnings("unchecked")
+    public RingDeque() {
+        items = (Item[]) new Object[MIN_CAPACITY];
+    }
+
+    /**
+     * Checks if the RingDeque is empty.
+     *
+     * @return true if the RingDeque is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of items in the RingDeque.
+     *
+     * @return the size of the RingDeque
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an item to the front of the RingDeque.
+     *
+     * @param item the item to add
+     * @throws IllegalArgumentException if the item is null
+     */
+    public void addFirst(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Null item not allowed");
+        }
+        if (size == items.length) {
+            resize(2 * items.length);
+        }
+        head = (head - 1) & (items.length - 1);
+        items[head] = item;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Adds an item to the back of the RingDeque.
+     *
+     * @param item the item to add
+     * @throws IllegalArgumentException if the item is null
+     */
+    public void addLast(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Null item not allowed");
+        }
+        if (size == items.length) {
+            resize(2 * items.length);
+        }
+        items[(head + size) & (items.length - 1)] = item;
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Removes and returns the item from the front of the RingDeque.
+     *
+     * @return the item from the front
+     * @throws NoSuchElementException if the RingDeque is empty
+     */
+    public Item removeFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Deque is empty!");
+        }
+        Item result = items[head];
+        items[head] = null; // Avoid loitering
+        head = (head + 1) & (items.length - 1);
+        size--;
+        modCount++;
+        shrinkIfSparse();
+        return result;
+    }
+
+    /**
+     * Removes and returns the item from the back of the RingDeque.
+     *
+     * @return the item from the back
+     * @throws NoSuchElementException if the RingDeque is empty
+     */
+    public Item removeLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Deque is empty!");
+        }
+        int last = (head + size - 1) & (items.length - 1);
+        Item result = items[last];
+        items[last] = null; // Avoid loitering
+        size--;
+        modCount++;
+        shrinkIfSparse();
+        return result;
+    }
+
+    private void shrinkIfSparse() {
+        if (items.length > MIN_CAPACITY && size <= items.length / 4) {
+            resize(items.length / 2);
+        }
+    }
+
+    /**
+     * Moves the items to a new array of the given power-of-two capacity,
+     * unwrapped so that the first item is at index 0.
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalStateException("Deque is too large");
+        }
+        Item[] resized = (Item[]) new Object[capacity];
+        int firstPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, resized, 0, firstPart);
+        System.arraycopy(items, 0, resized, firstPart, size - firstPart);
+        items = resized;
+        head = 0;
+    }
+
+    /**
+     * Iterator for the RingDeque. Fails with ConcurrentModificationException
+     * if the deque is changed while iterating, since positions shift then.
+     */
+    private class RingDequeIterator implements Iterator<Item> {
+        private int index;
+        private final int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public Item next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the Deque");
+            }
+            return items[(head + index++) & (items.length - 1)];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Remove operation is not supported");
+        }
+    }
+
+    /**
+     * Returns an iterator over items in order from front to back.
+     *
+     * @return an iterator for the RingDeque
+     */
+    public Iterator<Item> iterator() {
+        return new RingDequeIterator();
+    }
+
+    /**
+     * Unit testing of the RingDeque class.
+     *
+     * @param args command-line arguments (not used)
+     */
+    public static void main(String[] args) {
+        RingDeque<Integer> deque = new RingDeque<>();
+
+        assert deque.isEmpty() : "Deque should be empty initially";
+
+        for (int i = 0; i < 100; i++) {
+            deque.addLast(i);
+            deque.addFirst(-i - 1);
+        }
+        assert deque.size() == 200 : "Size should be 200 after adding elements";
+        assert deque.removeFirst() == -100 : "First element should be -100";
+        assert deque.removeLast() == 99 : "Last element should be 99";
+
+        int expected = -99;
+        for (int item : deque) {
+            assert item == expected : "Iterator should return items from front to back";
+            expected++;
+        }
+
+        while (deque.size() > 1) {
+            deque.removeLast();
+        }
+        assert deque.removeFirst() == -99 : "Remaining element should be -99";
+
+        try {
+            deque.removeFirst();
+        } catch (NoSuchElementException e) {
+            System.out.println("Caught expected exception for empty deque");
+        }
+
+        System.out.println("All tests passed.");
+    }
+}
@@ -0,0 +1,276 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A work-stealing deque (Chase and Lev, "Dynamic Circular Work-Stealing
+ * Deque", SPAA 2005) for per-worker task queues.
+ *
+ * One thread, the owner, pushes and pops at the front (the "bottom" of the
+ * paper); any number of other threads, the thieves, take items from the back
+ * (the "top"). Unlike wrapping {@link Deque} in synchronized blocks, neither
+ * side ever blocks:
+ * - addFirst and removeFirst are plain reads and writes of the owner's own
+ *   bottom index. Only when a single item is left do the owner and the
+ *   thieves race for it, with one compareAndSet on top.
+ * - steal is one compareAndSet on top; a thief that loses the race gets null
+ *   and simply tries elsewhere.
+ * - The items live in a circular array whose capacity is a power of two. When
+ *   it is full, the owner copies the items into an array twice as large;
+ *   thieves still reading the old array see the same items at the same
+ *   logical indices, so no locking is needed for growing either.
+ * - Slots of stolen items are cleared by the owner on its next addFirst or
+ *   removeFirst, not by the thieves: once top has moved on, the owner may
+ *   reuse a slot for a new item, and a late write by a thief could erase it.
+ *
+ * Performance:
+ * - addFirst: O(1) amortized (the array doubles when full)
+ * - removeFirst, steal: O(1), lock-free
+ * - size, isEmpty: O(1), a snapshot that may be outdated when it returns
+ *
+ * @param <Item> the type of elements held in this deque
+ */
+public final class WorkStealingDeque<Item> {
+
+    private static final int MIN_CAPACITY = 32;
+
+    private final AtomicLong top = new AtomicLong();   // next index to steal, only grows
+    private volatile long bottom;                      // next index to push; written by the owner only
+    private volatile AtomicReferenceArray<Item> items; // item i is at index i & (length - 1)
+    private long cleared;                              // owner only: slots of indices below this hold no stolen item
+
+    /**
+     * Constructs an empty WorkStealingDeque.
+     */
+    public WorkStealingDeque() {
+        items = new AtomicReferenceArray<>(MIN_CAPACITY);
+    }
+
+    /**
+     * Checks if the deque is empty. Only a snapshot when other threads use it.
+     *
+     * @return true if the deque is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of items in the deque. Only a snapshot when other
+     * threads use it.
+     *
+     * @return the size of the deque
+     */
+    public int size() {
+        long size = bottom - top.get();
+        return (int) Math.max(0, Math.min(size, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Adds an item to the front of the deque. Owner thread only.
+     *
+     * @param item the item to add
+     * @throws IllegalArgumentException if the item is null
+     */
+    public void addFirst(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Null item not allowed");
+        }
+        long b = bottom;
+        long t = top.get();
+        AtomicReferenceArray<Item> a = items;
+        clearStolen(a, t);
+        if (b - t >= a.length() - 1) {
+            a = grow(a, t, b);
+        }
+        a.set((int) b & (a.length() - 1), item);
+        bottom = b + 1; // Volatile write publishes the item to thieves
+    }
+
+    /**
+     * Removes and returns the item from the front of the deque, i.e. the one
+     * added last. Owner thread only.
+     *
+     * @return the item from the front, or null if the deque is empty (also
+     *         when a thief took the last item at the same time)
+     */
+    public Item removeFirst() {
+        long b = bottom - 1;
+        AtomicReferenceArray<Item> a = items;
+        bottom = b; // Volatile write, then volatile read of top: thieves see the claim before we look
+        long t = top.get();
+        clearStolen(a, t);
+
+        if (t > b) {
+            bottom = b + 1; // Was already empty
+            return null;
+        }
+        int index = (int) b & (a.length() - 1);
+        Item item = a.get(index);
+        if (t < b) {
+            a.set(index, null); // No thief can reach this slot anymore; avoid loitering
+            return item;
+        }
+
+        // Last item: race the thieves for it.
+        if (top.compareAndSet(t, t + 1)) {
+            a.set(index, null); // Thieves that still read this slot fail their compareAndSet on top
+        } else {
+            item = null;
+        }
+        bottom = b + 1;
+        return item;
+    }
+
+    /**
+     * Removes and returns the item from the back of the deque, i.e. the oldest
+     * one. Any thread may call this.
+     *
+     * @return the item from the back, or null if the deque is empty or another
+     *         thread took the item first
+     */
+    public Item steal() {
+        long t = top.get();
+        long b = bottom;
+        if (t >= b) {
+            return null;
+        }
+        AtomicReferenceArray<Item> a = items;
+        Item item = a.get((int) t & (a.length() - 1));
+        return top.compareAndSet(t, t + 1) ? item : null;
+    }
+
+    /**
+     * Clears the slots of the items taken by thieves since the last call, so
+     * they are not kept reachable until the slot is reused. Owner thread only,
+     * before it pushes anything: the slots below t cannot hold a live item
+     * yet, because every push so far stayed within one array length of the top
+     * that the owner had seen up to then.
+     */
+    private void clearStolen(AtomicReferenceArray<Item> a, long t) {
+        for (long i = Math.max(cleared, t - a.length()); i < t; i++) {
+            a.set((int) i & (a.length() - 1), null);
+        }
+        cleared = Math.max(cleared, t);
+    }
+
+    /**
+     * Copies the items top .. bottom - 1 into an array twice as large and
+     * publishes it. The old array is left untouched for thieves still reading it.
+     */
+    private AtomicReferenceArray<Item> grow(AtomicReferenceArray<Item> a, long t, long b) {
+        int capacity = a.length() << 1;
+        if (capacity < 0) {
+            throw new IllegalStateException("Deque is too large");
+        }
+        AtomicReferenceArray<Item> grown = new AtomicReferenceArray<>(capacity);
+        for (long i = t; i < b; i++) {
+            grown.set((int) i & (capacity - 1), a.get((int) i & (a.length() - 1)));
+        }
+        items = grown;
+        return grown;
+    }
+
+    /**
+     * Task of the scheduler demo: sum mix(i) over i in [low, high).
+     */
+    private static final class Range {
+        final long low;
+        final long high;
+
+        Range(long low, long high) {
+            this.low = low;
+            this.high = high;
+        }
+    }
+
+    private static final long DEMO_ITEMS = 1L << 27;
+    private static final long DEMO_GRAIN = 1L << 12;
+
+    /**
+     * Scheduler demo: every worker owns a deque; a worker splits its range in
+     * halves, pushing one half and continuing with the other, and steals from
+     * a random other worker when its own deque is empty. All work starts in
+     * the deque of worker 0, so the others only get work by stealing.
+     * Prints the running time and speedup for 1, 2, 4, ... workers.
+     *
+     * @param args optional maximum number of workers (default: available processors)
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int maxWorkers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        double baseline = 0;
+        long expected = 0;
+
+        for (int workers = 1; workers <= maxWorkers; workers = workers == maxWorkers ? workers + 1 : Math.min(2 * workers, maxWorkers)) {
+            long start = System.nanoTime();
+            long sum = runDemo(workers);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (workers == 1) {
+                baseline = seconds;
+                expected = sum;
+            } else if (sum != expected) {
+                throw new AssertionError("Workers computed different sums");
+            }
+            System.out.printf("%3d workers: %.3f s, speedup %.2f%n", workers, seconds, baseline / seconds);
+        }
+    }
+
+    private static long runDemo(int workers) throws InterruptedException {
+        @SuppressWarnings("unchecked")
+        WorkStealingDeque<Range>[] deques = (WorkStealingDeque<Range>[]) new WorkStealingDeque<?>[workers];
+        for (int w = 0; w < workers; w++) {
+            deques[w] = new WorkStealingDeque<>();
+        }
+        AtomicLong done = new AtomicLong();   // items summed so far, all workers stop at DEMO_ITEMS
+        AtomicLong total = new AtomicLong();
+
+        Thread[] threads = new Thread[workers];
+        for (int w = 0; w < workers; w++) {
+            final int self = w;
+            threads[w] = new Thread(() -> {
+                WorkStealingDeque<Range> own = deques[self];
+                if (self == 0) {
+                    own.addFirst(new Range(0, DEMO_ITEMS));
+                }
+                long sum = 0;
+                while (done.get() < DEMO_ITEMS) {
+                    Range range = own.removeFirst();
+                    if (range == null && workers > 1) {
+                        int victim = ThreadLocalRandom.current().nextInt(workers - 1);
+                        range = deques[victim < self ? victim : victim + 1].steal();
+                    }
+                    if (range == null) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    long low = range.low;
+                    long high = range.high;
+                    while (high - low > DEMO_GRAIN) {
+                        long mid = (low + high) >>> 1;
+                        own.addFirst(new Range(mid, high));
+                        high = mid;
+                    }
+                    for (long i = low; i < high; i++) {
+                        sum += mix(i);
+                    }
+                    done.addAndGet(high - low);
+                }
+                total.addAndGet(sum);
+            });
+            threads[w].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return total.get();
+    }
+
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        return x ^ (x >>> 33);
+    }
+}
@@ -0,0 +1,379 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Solves the 4-SUM problem: find distinct indices i, j, k, l with
+ * a[i] + a[j] == a[k] + a[l].
+ *
+ * Every pair (i, j) with i < j is visited in order and its sum is looked up in
+ * a hash table that maps a pair sum to the first pair that produced it. If the
+ * stored pair and the current pair share no index, the four indices are the
+ * answer and the search stops right away.
+ *
+ * Key functionalities:
+ * - `find(int[] a)` returns the four indices, or null if there are none.
+ * - `exists(int[] a)` only answers whether such indices exist.
+ * - `find(int[] a, long memoryBudget, Path spillDirectory)` bounds the memory
+ *   used for the hash table.
+ *
+ * Memory:
+ * - The table (LongLongTable) keeps sums and packed pairs in two long[]
+ *   arrays with open addressing and linear probing, 16 bytes per slot and
+ *   a power of two of slots, at most half of them used, with no boxing and
+ *   no entry objects. Its capacity is derived from the bytes it may use, and
+ *   is at most 2^29 pairs (2^30 slots).
+ * - When all n(n-1)/2 pairs do not fit in the memory budget, the pairs are
+ *   split into partitions by the top bits of the hash of their sum. Equal
+ *   sums always land in the same partition. A quarter of the budget goes to
+ *   the write buffers of the partition files, the rest to the table. Each
+ *   pass generates all pairs, checks one partition in memory and writes at
+ *   most MAX_OPEN_PARTITIONS others to disk (8 bytes per pair, the sum is
+ *   recomputed from the indices), which are then checked one after another.
+ *   More partitions take more passes. Each partition keeps the pairs in
+ *   generation order, so a solution is found exactly when one big table
+ *   would find one (possibly a different one, since partition 0 is searched
+ *   first).
+ *
+ * Time Complexity: O(n^2) expected, plus O(n^2) disk traffic when spilling;
+ * O(n^2) per pass when the partitions need more than one pass.
+ * Space Complexity: O(min(n^2, memoryBudget)).
+ */
+public class FourSum {
+
+    private static final int SPILL_BUFFER_BYTES = 1 << 16;  // Largest write buffer of one partition file.
+    private static final int MIN_SPILL_BUFFER_BYTES = 1 << 12;
+    private static final int MAX_OPEN_PARTITIONS = 256;     // Partition files open at the same time.
+
+    /**
+     * Finds distinct indices i, j, k, l with a[i] + a[j] == a[k] + a[l], using
+     * at most a quarter of the maximum heap size for the hash table.
+     *
+     * @param a The input array.
+     * @return {i, j, k, l}, or null if no such indices exist.
+     * @throws UncheckedIOException if spilling to the temporary directory fails.
+     */
+    public static int[] find(int[] a) {
+        try {
+            return find(a, Runtime.getRuntime().maxMemory() / 4, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checks whether distinct indices i, j, k, l with a[i] + a[j] == a[k] + a[l] exist.
+     *
+     * @param a The input array.
+     * @return True if such indices exist, false otherwise.
+     * @throws UncheckedIOException if spilling to the temporary directory fails.
+     */
+    public static boolean exists(int[] a) {
+        return find(a) != null;
+    }
+
+    /**
+     * Finds distinct indices i, j, k, l with a[i] + a[j] == a[k] + a[l].
+     *
+     * @param a The input array.
+     * @param memoryBudget Maximum number of bytes for the hash table and the
+     *                     write buffers of the partition files.
+     * @param spillDirectory Directory for partition files, or null for the
+     *                       default temporary directory. Files are deleted
+     *                       before returning.
+     * @return {i, j, k, l}, or null if no such indices exist.
+     * @throws IOException if a partition file cannot be written or read.
+     * @throws IllegalArgumentException if the budget holds fewer than 1024 pairs.
+     */
+    public static int[] find(int[] a, long memoryBudget, Path spillDirectory) throws IOException {
+        int capacity = LongLongTable.capacityFor(memoryBudget);
+        if (capacity < 1024) {
+            throw new IllegalArgumentException("Memory budget must hold at least 1024 pairs.");
+        }
+        long pairs = (long) a.length * (a.length - 1) / 2;
+        if (pairs <= capacity) {
+            return findInMemory(a, new LongLongTable((int) pairs));
+        }
+
+        long spillBytes = memoryBudget / 4;
+        capacity = LongLongTable.capacityFor(memoryBudget - spillBytes);
+
+        // Aim at half the capacity per partition, so that uneven partitions still fit in the table,
+        // and round up to a power of two, so partitions are hash prefixes.
+        long needed = (2 * pairs + capacity - 1) / capacity;
+        int partitionBits = 64 - Long.numberOfLeadingZeros(needed - 1);
+        if (partitionBits > 20) {
+            throw new IllegalArgumentException("Memory budget is too small for " + a.length + " elements.");
+        }
+        // Split the spill bytes among as many open partition files as fit with buffers of at least
+        // MIN_SPILL_BUFFER_BYTES; the capacity check above leaves room for at least one.
+        int maxOpen = (int) Math.min(Math.min((1 << partitionBits) - 1, MAX_OPEN_PARTITIONS),
+                spillBytes / MIN_SPILL_BUFFER_BYTES);
+        int bufferBytes = (int) Math.min(SPILL_BUFFER_BYTES, spillBytes / maxOpen) & -Long.BYTES;
+        return findPartitioned(a, partitionBits, capacity, maxOpen, bufferBytes, spillDirectory);
+    }
+
+    /**
+     * Runs the search with all pairs in one table.
+     */
+    private static int[] findInMemory(int[] a, LongLongTable table) {
+        for (int i = 0; i < a.length; i++) {
+            for (int j = i + 1; j < a.length; j++) {
+                long sum = (long) a[i] + a[j];
+                long first = table.putIfAbsent(sum, pack(i, j));
+                if (first != LongLongTable.EMPTY && disjoint(first, i, j)) {
+                    return answer(first, i, j);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs the search in 2^partitionBits partitions. Each pass checks one partition in memory and
+     * spills the next maxOpen partitions to files, which it checks afterwards.
+     */
+    private static int[] findPartitioned(int[] a, int partitionBits, int capacity, int maxOpen, int bufferBytes,
+            Path spillDirectory) throws IOException {
+        int partitions = 1 << partitionBits;
+        Path directory = spillDirectory == null
+                ? Files.createTempDirectory("foursum")
+                : Files.createTempDirectory(spillDirectory, "foursum");
+        Path[] files = new Path[maxOpen];
+        FileChannel[] channels = new FileChannel[maxOpen];
+        ByteBuffer[] buffers = new ByteBuffer[maxOpen];
+        for (int k = 0; k < maxOpen; k++) {
+            buffers[k] = ByteBuffer.allocate(bufferBytes).order(ByteOrder.nativeOrder());
+        }
+        LongLongTable table = new LongLongTable(capacity);
+        try {
+            for (int inMemory = 0; inMemory < partitions; inMemory += maxOpen + 1) {
+                int firstSpilled = inMemory + 1;
+                int spilled = Math.min(maxOpen, partitions - firstSpilled);
+                for (int k = 0; k < spilled; k++) {
+                    files[k] = directory.resolve("partition-" + (firstSpilled + k));
+                    channels[k] = FileChannel.open(files[k], StandardOpenOption.CREATE_NEW,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+
+                // Generate all pairs: the in-memory partition is checked right away, the next ones are spilled.
+                table.clear();
+                for (int i = 0; i < a.length; i++) {
+                    for (int j = i + 1; j < a.length; j++) {
+                        long sum = (long) a[i] + a[j];
+                        int k = (int) (LongLongTable.mix(sum) >>> (64 - partitionBits)) - firstSpilled;
+                        if (k == -1) {
+                            long first = table.putIfAbsent(sum, pack(i, j));
+                            if (first != LongLongTable.EMPTY && disjoint(first, i, j)) {
+                                return answer(first, i, j);
+                            }
+                        } else if (k >= 0 && k < spilled) {
+                            if (!buffers[k].hasRemaining()) {
+                                writeFully(channels[k], buffers[k]);
+                            }
+                            buffers[k].putLong(pack(i, j));
+                        }
+                    }
+                }
+
+                // Check the spilled partitions one by one, reading through the first (flushed) buffer.
+                for (int k = 0; k < spilled; k++) {
+                    writeFully(channels[k], buffers[k]);
+                }
+                ByteBuffer buffer = buffers[0];
+                for (int k = 0; k < spilled; k++) {
+                    table.clear();
+                    channels[k].position(0);
+                    while (channels[k].read(buffer) > 0) {
+                        buffer.flip();
+                        while (buffer.remaining() >= Long.BYTES) {
+                            long pair = buffer.getLong();
+                            int i = (int) (pair >>> 32);
+                            int j = (int) pair;
+                            long first = table.putIfAbsent((long) a[i] + a[j], pair);
+                            if (first != LongLongTable.EMPTY && disjoint(first, i, j)) {
+                                return answer(first, i, j);
+                            }
+                        }
+                        buffer.compact();
+                    }
+                    channels[k].close();
+                    channels[k] = null;
+                    Files.delete(files[k]);
+                }
+            }
+            return null;
+        } finally {
+            for (int k = 0; k < maxOpen; k++) {
+                if (channels[k] != null) {
+                    channels[k].close();
+                    Files.deleteIfExists(files[k]);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long pack(int i, int j) {
+        return ((long) i << 32) | j;
+    }
+
+    private static boolean disjoint(long pair, int i, int j) {
+        int x = (int) (pair >>> 32);
+        int y = (int) pair;
+        return x != i && x != j && y != i && y != j;
+    }
+
+    private static int[] answer(long pair, int i, int j) {
+        return new int[] {(int) (pair >>> 32), (int) pair, i, j};
+    }
+
+    /**
+     * Hash table from long keys to non-negative long values with open
+     * addressing and linear probing. Keys and values live in two primitive
+     * arrays; the table never grows, it holds up to the capacity given at
+     * construction at a load factor of at most 1/2.
+     */
+    static final class LongLongTable {
+        static final long EMPTY = -1;  // Marks an empty slot, and is returned when a key was absent.
+        static final int SLOT_BYTES = 2 * Long.BYTES;
+        static final int MAX_CAPACITY = 1 << 29;  // Keeps the slot count at most 2^30.
+
+        private final long[] keys;
+        private final long[] values;
+        private final int mask;
+        private int size;
+        private final int maxSize;
+
+        /**
+         * @throws IllegalArgumentException if capacity is negative or above MAX_CAPACITY.
+         */
+        LongLongTable(int capacity) {
+            int slots = slotsFor(capacity);
+            keys = new long[slots];
+            values = new long[slots];
+            Arrays.fill(values, EMPTY);
+            mask = slots - 1;
+            maxSize = capacity;
+        }
+
+        /**
+         * Returns the number of slots for the capacity: the smallest power of
+         * two that is at least twice the capacity, and at least 4.
+         */
+        static int slotsFor(int capacity) {
+            if (capacity < 0 || capacity > MAX_CAPACITY) {
+                throw new IllegalArgumentException("Capacity must be between 0 and " + MAX_CAPACITY + ".");
+            }
+            return Integer.highestOneBit(Math.max(2, 2 * capacity - 1)) << 1;
+        }
+
+        /**
+         * Returns the largest capacity whose table fits in the given number of
+         * bytes, at most MAX_CAPACITY.
+         */
+        static int capacityFor(long bytes) {
+            long slots = Math.min(bytes / SLOT_BYTES, 2L * MAX_CAPACITY);
+            return slots < 4 ? 0 : (int) (Long.highestOneBit(slots) / 2);
+        }
+
+        /**
+         * Stores the value for the key unless the key is present already.
+         *
+         * @return The value stored for the key before, or EMPTY if it was inserted.
+         * @throws IllegalStateException if the table is full.
+         */
+        long putIfAbsent(long key, long value) {
+            int slot = (int) mix(key) & mask;
+            while (values[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == maxSize) {
+                throw new IllegalStateException("Pair table is full.");
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+            return EMPTY;
+        }
+
+        void clear() {
+            Arrays.fill(values, EMPTY);
+            size = 0;
+        }
+
+        /**
+         * Finalizer of MurmurHash3; the top bits select the partition, the low
+         * bits the slot.
+         */
+        static long mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            key *= 0xc4ceb9fe1a85ec53L;
+            return key ^ (key >>> 33);
+        }
+    }
+
+    /**
+     * Reads integers from standard input and prints four indices with
+     * a[i] + a[j] == a[k] + a[l], if there are any.
+     *
+     * @param args Optional memory budget for the hash table, in megabytes.
+     * @throws IOException if standard input or a partition file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        int[] a = readInts(System.in);
+        long budget = args.length > 0 ? Long.parseLong(args[0]) << 20 : Runtime.getRuntime().maxMemory() / 4;
+
+        int[] indices = find(a, budget, null);
+        if (indices == null) {
+            System.out.println("No indices found");
+        } else {
+            System.out.printf("a[%d] + a[%d] = a[%d] + a[%d] = %d%n", indices[0], indices[1], indices[2], indices[3],
+                    (long) a[indices[0]] + a[indices[1]]);
+        }
+    }
+
+    private static int[] readInts(InputStream in) throws IOException {
+        InputStream input = new BufferedInputStream(in);
+        int[] values = new int[16];
+        int count = 0;
+        int c = input.read();
+        while (c != -1) {
+            if (c != '-' && (c < '0' || c > '9')) {
+                c = input.read();
+                continue;
+            }
+            boolean negative = c == '-';
+            long value = negative ? 0 : c - '0';
+            while ((c = input.read()) >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+            }
+            if (count == values.length) {
+                values = Arrays.copyOf(values, 2 * count);
+            }
+            values[count++] = (int) (negative ? -value : value);
+        }
+        return Arrays.copyOf(values, count);
+    }
+}
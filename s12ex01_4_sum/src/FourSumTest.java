@@ -0,0 +1,76 @@
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Unit testing of FourSum: the sizing of its hash table and the search with
+ * and without spilling.
+ */
+public class FourSumTest {
+
+    /**
+     * Runs all checks and throws an AssertionError on the first failure.
+     *
+     * @param args command-line arguments (not used)
+     * @throws IOException if a partition file cannot be written or read.
+     */
+    public static void main(String[] args) throws IOException {
+        testTableSizing();
+        testFind();
+        System.out.println("All tests passed.");
+    }
+
+    private static void testTableSizing() {
+        int max = FourSum.LongLongTable.MAX_CAPACITY;
+        check(FourSum.LongLongTable.slotsFor(max) == 1 << 30, "MAX_CAPACITY should take 2^30 slots");
+        check(FourSum.LongLongTable.slotsFor(0) == 4 && FourSum.LongLongTable.slotsFor(3) == 8,
+                "Small capacities should take at least 4 slots");
+        try {
+            FourSum.LongLongTable.slotsFor(max + 1);
+            throw new AssertionError("A capacity above MAX_CAPACITY should be rejected");
+        } catch (IllegalArgumentException expected) {
+            // 2 * capacity would overflow the slot count
+        }
+        check(FourSum.LongLongTable.capacityFor(Long.MAX_VALUE) == max, "Large budgets should be clamped");
+        check(FourSum.LongLongTable.capacityFor(16L << 30) == max, "16 GiB should hold exactly MAX_CAPACITY");
+
+        long[] budgets = {1 << 15, (1 << 20) + 32, (1 << 20) - 1, 3L << 20, 16L << 30, (16L << 30) - 1, 1L << 40};
+        for (long budget : budgets) {
+            for (long bytes : new long[] {budget, budget - budget / 4}) {
+                int capacity = FourSum.LongLongTable.capacityFor(bytes);
+                long tableBytes = (long) FourSum.LongLongTable.slotsFor(capacity) * FourSum.LongLongTable.SLOT_BYTES;
+                check(tableBytes <= bytes, "A table for " + bytes + " bytes takes " + tableBytes);
+                check(capacity == max || tableBytes > bytes / 2, "A table for " + bytes + " bytes is too small");
+            }
+        }
+    }
+
+    private static void testFind() throws IOException {
+        Random random = new Random(12);
+        for (int test = 0; test < 40; test++) {
+            int[] a = new int[50 + random.nextInt(400)];
+            int range = random.nextBoolean() ? Integer.MAX_VALUE : 1 << 20;
+            for (int i = 0; i < a.length; i++) {
+                a[i] = random.nextInt(range);
+            }
+            boolean expected = FourSum.find(a, 1 << 30, null) != null;
+            for (long budget : new long[] {1 << 15, 1 << 18, (1 << 20) + 32}) {
+                int[] indices = FourSum.find(a, budget, null);
+                check((indices != null) == expected, "Spilling should not change the answer");
+                if (indices != null) {
+                    check(indices[0] != indices[2] && indices[0] != indices[3]
+                            && indices[1] != indices[2] && indices[1] != indices[3]
+                            && indices[0] != indices[1] && indices[2] != indices[3],
+                            "The indices should be distinct");
+                    check((long) a[indices[0]] + a[indices[1]] == (long) a[indices[2]] + a[indices[3]],
+                            "The pair sums should be equal");
+                }
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}